@@ -2,23 +2,29 @@ package controller;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javafx.concurrent.Task;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import model.builders.GenerationParametersBuilder;
 import model.persisted.Question;
 import model.persisted.QuestionPaper;
 import model.persisted.Subject;
+import model.questionpapergeneration.GenerationParameters;
+import model.questionpapergeneration.GenerationProgressListener;
 import model.questionpapergeneration.QuestionPaperGenerator;
 
 import view.builders.ButtonBuilder;
@@ -57,8 +63,22 @@ public class GenerateQuestionPaper extends UIController {
 
 	private static Label lblSelectedMinsRequired = new Label("Approx. duration: 60 minutes");
 
+	private static ChoiceBox choiceNumForms = new ChoiceBox();
+
+	private static CheckBox cbFreshPaper = new CheckBox("Generate a fresh paper\n(not a repeat of an earlier one)");
+
+	private static ProgressBar progressBar = new ProgressBar();
+
+	private static Label lblProgress = new Label();
+
+	private static Button btnGenerate;
+
+	private static Button btnCancel;
+
+	private static Task<List<QuestionPaper>> generationTask;
+
 	/**
-	 * Return whether a paper has been generated successfully or not.
+	 * Return whether a paper (or its parallel forms) has been generated successfully or not.
 	 * 
 	 * @return whether or not the paper has been generated successfully
 	 */
@@ -71,18 +91,22 @@ public class GenerateQuestionPaper extends UIController {
 		Label lblEnterCourseCode = new Label("Enter the course code:");
 		Label lblSelectSkillLvl = new Label("Select approx. paper skill level\n(based on Bloom's taxonomy):");
 		Label lblSelectMinsRequired = new Label("Select approx. duration (mins):");
+		Label lblSelectNumForms = new Label("Select no. parallel forms\n(papers with no shared questions):");
 
-		Button btnGenerate = new ButtonBuilder()
+		btnGenerate = new ButtonBuilder()
 			.withWidth(120)
 			.withUserAction(UserAction.GENERATE)
-			.withActionEvent(e -> {
-				Optional<QuestionPaper> generatedPaper = prepareParamsAndGenerate();
-				if (generatedPaper.isPresent()) {
-					questionPaperService.addQuestionPaper(generatedPaper.get());
-					generated = true;
-					stage.close();
-				}
-			})
+			.withActionEvent(e -> prepareParamsAndGenerate())
+			.build();
+		btnCancel = new ButtonBuilder()
+			.withWidth(120)
+			.withUserAction(UserAction.CANCEL)
+			.withActionEvent(e -> generationTask.cancel())
+			.build();
+		HBox hboxButtons = (HBox) new PaneBuilder(BoxType.HBOX)
+			.withAlignment(Pos.CENTER_LEFT)
+			.withSpacing(10)
+			.withNodes(btnGenerate, btnCancel)
 			.build();
 
 		VBox vbox1 = (VBox) new PaneBuilder(BoxType.VBOX)
@@ -95,7 +119,8 @@ public class GenerateQuestionPaper extends UIController {
 			.withAlignment(Pos.TOP_LEFT)
 			.withSpacing(10)
 			.withNodes(lblSelectSkillLvl, sliderSkillLvl, lblSelectedSkillLvl, lblSelectMinsRequired,
-				sliderMinutesRequired, lblSelectedMinsRequired, btnGenerate)
+				sliderMinutesRequired, lblSelectedMinsRequired, lblSelectNumForms, choiceNumForms, cbFreshPaper,
+				hboxButtons, progressBar, lblProgress)
 			.build();
 		HBox hbox = (HBox) new PaneBuilder(BoxType.HBOX)
 			.withAlignment(Pos.TOP_CENTER)
@@ -110,21 +135,25 @@ public class GenerateQuestionPaper extends UIController {
 
 		setup();
 
-		Scene scene = new Scene(root, 550, 550);
+		Scene scene = new Scene(root, 550, 740);
 		scene.getStylesheets().add(Constants.CSS_STYLE_PATH);
 		stage.setScene(scene);
 		stage.setTitle("Generate Question Paper");
 		stage.setResizable(false);
+		stage.setOnCloseRequest(e -> {
+			if (generationTask != null) {
+				generationTask.cancel();
+			}
+		});
 		stage.showAndWait();
 		return generated;
 	}
 
 	/**
-	 * Generate a paper and add it via QuestionPaperService.
-	 * 
-	 * @return whether or not paper has been generated successfully
+	 * Validate the user's parameters, then start generating a paper (or the selected number of
+	 * parallel forms of it).
 	 */
-	private static Optional<QuestionPaper> prepareParamsAndGenerate() {
+	private static void prepareParamsAndGenerate() {
 		String title = txtTitle.getText().trim();
 		String courseTitle = txtCourseTitle.getText().trim();
 		String courseCode = txtCourseCode.getText().trim();
@@ -132,7 +161,7 @@ public class GenerateQuestionPaper extends UIController {
 		if (title.isEmpty() || courseTitle.isEmpty() || courseCode.isEmpty()) {
 			SystemNotification.display(SystemNotificationType.ERROR,
 				"Please enter the title, course title and course code.");
-			return Optional.empty();
+			return;
 		}
 
 		title = StringFormatter.formatTitle(txtTitle.getText());
@@ -143,7 +172,7 @@ public class GenerateQuestionPaper extends UIController {
 			|| !courseCode.matches(Constants.TITLE_REGEX)) {
 			SystemNotification.display(SystemNotificationType.ERROR,
 				"Titles and codes must be only alphanumeric, and no repeating spaces.");
-			return Optional.empty();
+			return;
 		}
 
 		int subjectId = subjectService.getSubjectIdFromDisplayStr(choiceSubject.getSelectionModel()
@@ -151,6 +180,7 @@ public class GenerateQuestionPaper extends UIController {
 
 		BloomSkillLevel skillLevel = BloomSkillLevel.getFromInt((int) sliderSkillLvl.getValue());
 		int minsRequired = (int) sliderMinutesRequired.getValue();
+		int numForms = (int) choiceNumForms.getSelectionModel().getSelectedItem();
 
 		/*
 		 * Get questions by user-selected subject, so initially 'fit' questions are already
@@ -158,25 +188,105 @@ public class GenerateQuestionPaper extends UIController {
 		 */
 		List<Question> questions = questionService.getQuestionsBySubjectId(subjectId);
 
-		if (questions.size() < Constants.MIN_QUESTIONS_PER_PAPER) {
+		if (questions.size() < numForms * Constants.MIN_QUESTIONS_PER_PAPER) {
 			SystemNotification.display(SystemNotificationType.ERROR,
 				"Insufficient questions of this subject:\n"
 					+ subjectService.getSubjectById(subjectId).get().toString()
 					+ "\nSubjects require at least " + Constants.MIN_QUESTIONS_PER_PAPER
-					+ " questions to generate a paper.");
+					+ " questions per paper (or form) to generate.");
 
-			return Optional.empty();
+			return;
 		}
 
-		try {
-			SystemNotification.display(SystemNotificationType.NEUTRAL, "Generating...\nPlease wait.");
-			return QuestionPaperGenerator.getInstance().generatePaper(questions, subjectId, title,
-				courseTitle, courseCode, skillLevel, minsRequired);
-		} catch (IOException e) {
-			SystemNotification.display(SystemNotificationType.ERROR,
-				Constants.UNEXPECTED_ERROR + e.getClass().getName() + "\nIn: " + GenerateQuestionPaper.class.getName());
-			return Optional.empty();
-		}
+		startGeneration(questions, numForms, cbFreshPaper.isSelected(), subjectId, title, courseTitle, courseCode,
+			skillLevel, minsRequired);
+	}
+
+	/**
+	 * Generate the paper (or its forms) on a background thread, so that the window stays responsive:
+	 * the progress bar follows the run, and the user can cancel it (or close the window) at any
+	 * time. The papers are persisted on the FX thread once the task has succeeded, which a cancel
+	 * (also on the FX thread) can no longer undo, so a cancelled run never persists anything. The
+	 * window closes once the papers are saved.
+	 * 
+	 * Papers are generated with the same seed and no warm start (which would depend on the papers
+	 * stored since), so that a repeat request is served from the result cache, unless the user asks
+	 * for a fresh paper.
+	 */
+	private static void startGeneration(List<Question> questions, int numForms, boolean freshPaper,
+		int subjectId, String title, String courseTitle, String courseCode, BloomSkillLevel skillLevel,
+		int minsRequired) {
+
+		generationTask = new Task<List<QuestionPaper>>() {
+			@Override
+			protected List<QuestionPaper> call() throws IOException {
+				Task<List<QuestionPaper>> task = this;
+				updateMessage("Generating...");
+
+				GenerationProgressListener progressListener = new GenerationProgressListener() {
+					@Override
+					public void progressed(int generationsCompleted, int maxGenerations, double bestFitness) {
+						// the listener is called often, but the Task only passes the latest update to the UI
+						updateProgress(generationsCompleted, maxGenerations);
+						updateMessage(String.format("Generating... best fitness so far: %.3f", bestFitness));
+					}
+
+					@Override
+					public boolean isCancelled() {
+						return task.isCancelled();
+					}
+				};
+				GenerationParametersBuilder parametersBuilder = new GenerationParametersBuilder()
+					.withNumForms(numForms)
+					.withProgressListener(progressListener);
+				if (freshPaper) {
+					// the builder's seed is random by default, so the run could never be repeated
+					parametersBuilder.withUseResultCache(false);
+				} else {
+					parametersBuilder.withSeed(Constants.UI_GENERATION_SEED).withWarmStartFraction(0);
+				}
+				GenerationParameters parameters = parametersBuilder.build();
+
+				return QuestionPaperGenerator.getInstance().generate(questions, subjectId, title, courseTitle,
+					courseCode, skillLevel, minsRequired, parameters).getQuestionPapers();
+			}
+		};
+
+		generationTask.setOnSucceeded(e -> {
+			questionPaperService.addQuestionPapers(generationTask.getValue());
+			generated = true;
+			stage.close();
+		});
+		generationTask.setOnFailed(e -> {
+			setGenerating(false);
+			Throwable exception = generationTask.getException();
+			if (exception instanceof IllegalArgumentException) {
+				// e.g. too few questions for the selected number of forms
+				SystemNotification.display(SystemNotificationType.ERROR, exception.getMessage());
+			} else {
+				SystemNotification.display(SystemNotificationType.ERROR, Constants.UNEXPECTED_ERROR
+					+ exception.getClass().getName() + "\nIn: " + GenerateQuestionPaper.class.getName());
+			}
+		});
+		generationTask.setOnCancelled(e -> setGenerating(false));
+
+		progressBar.progressProperty().bind(generationTask.progressProperty());
+		lblProgress.textProperty().bind(generationTask.messageProperty());
+		setGenerating(true);
+
+		Thread thread = new Thread(generationTask, "Question paper generation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Enable the cancel button and progress bar while generating, or the generate button otherwise.
+	 */
+	private static void setGenerating(boolean generating) {
+		btnGenerate.setDisable(generating);
+		btnCancel.setDisable(!generating);
+		progressBar.setVisible(generating);
+		lblProgress.setVisible(generating);
 	}
 
 	/**
@@ -184,6 +294,11 @@ public class GenerateQuestionPaper extends UIController {
 	 */
 	private static void setup() {
 		stage = new Stage();
+		generationTask = null;
+		progressBar.progressProperty().unbind();
+		lblProgress.textProperty().unbind();
+		progressBar.setPrefWidth(200);
+		setGenerating(false);
 		txtTitle.clear();
 		txtCourseTitle.clear();
 		txtCourseCode.clear();
@@ -221,5 +336,13 @@ public class GenerateQuestionPaper extends UIController {
 			lblSelectedMinsRequired.setText("Approx. duration: " + intVal + " minutes");
 		});
 		lblSelectedMinsRequired.setPrefWidth(240);
+
+		choiceNumForms.getItems().setAll(IntStream.rangeClosed(1, Constants.MAX_FORMS)
+			.boxed()
+			.collect(Collectors.toList()));
+		choiceNumForms.getSelectionModel().select(Integer.valueOf(Constants.NUM_FORMS));
+		choiceNumForms.setPrefWidth(200);
+
+		cbFreshPaper.setSelected(false);
 	}
 }
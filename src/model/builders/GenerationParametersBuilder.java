@@ -0,0 +1,207 @@
+package model.builders;
+
+import java.util.SplittableRandom;
+
+import model.questionpapergeneration.GenerationParameters;
+import model.questionpapergeneration.GenerationProgressListener;
+
+import view.enums.GenerationStrategyType;
+import view.enums.LocalSearchMode;
+import view.enums.MigrationTopology;
+import view.enums.ReplacementStrategy;
+import view.utils.Constants;
+
+/**
+ * This class utilises the builder pattern, and is used to build GA Generation Parameters objects.
+ * Settings default to those in Constants, and the seed defaults to a random one.
+ *
+ * @author Sam Barba
+ */
+public class GenerationParametersBuilder {
+
+	private long seed = new SplittableRandom().nextLong();
+
+	private int popSize = Constants.POP_SIZE;
+
+	private int numIslands = Constants.NUM_ISLANDS;
+
+	private int migrationInterval = Constants.MIGRATION_INTERVAL;
+
+	private int numMigrants = Constants.NUM_MIGRANTS;
+
+	private MigrationTopology migrationTopology = Constants.MIGRATION_TOPOLOGY;
+
+	private int numThreads = Constants.ISLAND_THREADS;
+
+	private int maxGenerations = Constants.GENERATIONS;
+
+	private int stagnationWindow = Constants.STAGNATION_WINDOW;
+
+	private double targetFitness = Constants.TARGET_FITNESS;
+
+	private boolean stopOnExactMatch = Constants.STOP_ON_EXACT_MATCH;
+
+	private long timeBudgetMillis = Constants.TIME_BUDGET_MILLIS;
+
+	private ReplacementStrategy replacementStrategy = Constants.REPLACEMENT_STRATEGY;
+
+	private int numElites = Constants.NUM_ELITES;
+
+	private int steadyStateReplacements = Constants.STEADY_STATE_REPLACEMENTS;
+
+	private int fitnessCacheSize = Constants.FITNESS_CACHE_SIZE;
+
+	private LocalSearchMode localSearchMode = Constants.LOCAL_SEARCH_MODE;
+
+	private int localSearchInterval = Constants.LOCAL_SEARCH_INTERVAL;
+
+	private int numLocalSearchIndividuals = Constants.LOCAL_SEARCH_INDIVIDUALS;
+
+	private GenerationStrategyType strategyType = Constants.GENERATION_STRATEGY;
+
+	private int annealingIterations = Constants.ANNEALING_ITERATIONS;
+
+	private int numForms = Constants.NUM_FORMS;
+
+	private double warmStartFraction = Constants.WARM_START_FRACTION;
+
+	private boolean useResultCache = Constants.USE_RESULT_CACHE;
+
+	private GenerationProgressListener progressListener;
+
+	public GenerationParametersBuilder() {
+	}
+
+	public GenerationParametersBuilder withSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	public GenerationParametersBuilder withPopSize(int popSize) {
+		this.popSize = popSize;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumIslands(int numIslands) {
+		this.numIslands = numIslands;
+		return this;
+	}
+
+	public GenerationParametersBuilder withMigrationInterval(int migrationInterval) {
+		this.migrationInterval = migrationInterval;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumMigrants(int numMigrants) {
+		this.numMigrants = numMigrants;
+		return this;
+	}
+
+	public GenerationParametersBuilder withMigrationTopology(MigrationTopology migrationTopology) {
+		this.migrationTopology = migrationTopology;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+		return this;
+	}
+
+	public GenerationParametersBuilder withMaxGenerations(int maxGenerations) {
+		this.maxGenerations = maxGenerations;
+		return this;
+	}
+
+	public GenerationParametersBuilder withStagnationWindow(int stagnationWindow) {
+		this.stagnationWindow = stagnationWindow;
+		return this;
+	}
+
+	public GenerationParametersBuilder withTargetFitness(double targetFitness) {
+		this.targetFitness = targetFitness;
+		return this;
+	}
+
+	public GenerationParametersBuilder withStopOnExactMatch(boolean stopOnExactMatch) {
+		this.stopOnExactMatch = stopOnExactMatch;
+		return this;
+	}
+
+	public GenerationParametersBuilder withTimeBudgetMillis(long timeBudgetMillis) {
+		this.timeBudgetMillis = timeBudgetMillis;
+		return this;
+	}
+
+	public GenerationParametersBuilder withReplacementStrategy(ReplacementStrategy replacementStrategy) {
+		this.replacementStrategy = replacementStrategy;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumElites(int numElites) {
+		this.numElites = numElites;
+		return this;
+	}
+
+	public GenerationParametersBuilder withSteadyStateReplacements(int steadyStateReplacements) {
+		this.steadyStateReplacements = steadyStateReplacements;
+		return this;
+	}
+
+	public GenerationParametersBuilder withFitnessCacheSize(int fitnessCacheSize) {
+		this.fitnessCacheSize = fitnessCacheSize;
+		return this;
+	}
+
+	public GenerationParametersBuilder withLocalSearchMode(LocalSearchMode localSearchMode) {
+		this.localSearchMode = localSearchMode;
+		return this;
+	}
+
+	public GenerationParametersBuilder withLocalSearchInterval(int localSearchInterval) {
+		this.localSearchInterval = localSearchInterval;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumLocalSearchIndividuals(int numLocalSearchIndividuals) {
+		this.numLocalSearchIndividuals = numLocalSearchIndividuals;
+		return this;
+	}
+
+	public GenerationParametersBuilder withStrategyType(GenerationStrategyType strategyType) {
+		this.strategyType = strategyType;
+		return this;
+	}
+
+	public GenerationParametersBuilder withAnnealingIterations(int annealingIterations) {
+		this.annealingIterations = annealingIterations;
+		return this;
+	}
+
+	public GenerationParametersBuilder withNumForms(int numForms) {
+		this.numForms = numForms;
+		return this;
+	}
+
+	public GenerationParametersBuilder withWarmStartFraction(double warmStartFraction) {
+		this.warmStartFraction = warmStartFraction;
+		return this;
+	}
+
+	public GenerationParametersBuilder withUseResultCache(boolean useResultCache) {
+		this.useResultCache = useResultCache;
+		return this;
+	}
+
+	public GenerationParametersBuilder withProgressListener(GenerationProgressListener progressListener) {
+		this.progressListener = progressListener;
+		return this;
+	}
+
+	public GenerationParameters build() {
+		return new GenerationParameters(seed, popSize, numIslands, migrationInterval, numMigrants,
+			migrationTopology, numThreads, maxGenerations, stagnationWindow, targetFitness, stopOnExactMatch,
+			timeBudgetMillis, replacementStrategy, numElites, steadyStateReplacements, fitnessCacheSize,
+			localSearchMode, localSearchInterval, numLocalSearchIndividuals, strategyType, annealingIterations,
+			numForms, warmStartFraction, useResultCache, progressListener);
+	}
+}
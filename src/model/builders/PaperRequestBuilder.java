@@ -0,0 +1,75 @@
+package model.builders;
+
+import model.questionpapergeneration.GenerationParameters;
+import model.questionpapergeneration.PaperRequest;
+
+import view.enums.BloomSkillLevel;
+
+/**
+ * This class utilises the builder pattern, and is used to build Paper Request objects for batch
+ * generation. The generation parameters default to those of GenerationParametersBuilder (so each
+ * request gets its own random seed).
+ *
+ * @author Sam Barba
+ */
+public class PaperRequestBuilder {
+
+	private int subjectId;
+
+	private String title;
+
+	private String courseTitle;
+
+	private String courseCode;
+
+	private BloomSkillLevel skillLevel;
+
+	private int minsRequired;
+
+	private GenerationParameters parameters;
+
+	public PaperRequestBuilder() {
+	}
+
+	public PaperRequestBuilder withSubjectId(int subjectId) {
+		this.subjectId = subjectId;
+		return this;
+	}
+
+	public PaperRequestBuilder withTitle(String title) {
+		this.title = title;
+		return this;
+	}
+
+	public PaperRequestBuilder withCourseTitle(String courseTitle) {
+		this.courseTitle = courseTitle;
+		return this;
+	}
+
+	public PaperRequestBuilder withCourseCode(String courseCode) {
+		this.courseCode = courseCode;
+		return this;
+	}
+
+	public PaperRequestBuilder withSkillLevel(BloomSkillLevel skillLevel) {
+		this.skillLevel = skillLevel;
+		return this;
+	}
+
+	public PaperRequestBuilder withMinsRequired(int minsRequired) {
+		this.minsRequired = minsRequired;
+		return this;
+	}
+
+	public PaperRequestBuilder withParameters(GenerationParameters parameters) {
+		this.parameters = parameters;
+		return this;
+	}
+
+	public PaperRequest build() {
+		GenerationParameters requestParameters = parameters == null ? new GenerationParametersBuilder().build()
+			: parameters;
+		return new PaperRequest(subjectId, title, courseTitle, courseCode, skillLevel, minsRequired,
+			requestParameters);
+	}
+}
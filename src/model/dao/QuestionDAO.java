@@ -2,7 +2,10 @@ package model.dao;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -64,21 +67,24 @@ public class QuestionDAO {
 	 * Delete questions by their unique IDs.
 	 * 
 	 * @param ids - the IDs of the questions to delete
+	 * @return the deleted questions
 	 */
-	public void deleteQuestionsByIds(List<Integer> ids) {
+	public List<Question> deleteQuestionsByIds(List<Integer> ids) {
+		Set<Integer> deleteIds = new HashSet<>(ids);
+		List<Question> deletedQuestions = new ArrayList<>();
 		try {
-			List<Question> allQuestions = getAllQuestions();
-			List<Question> writeQuestions = allQuestions.stream()
-				.filter(q -> !ids.contains(q.getId()))
-				.collect(Collectors.toList());
+			Map<Boolean, List<Question>> partitionedQuestions = getAllQuestions().stream()
+				.collect(Collectors.partitioningBy(q -> deleteIds.contains(q.getId())));
 
-			questionSerialiser.write(writeQuestions);
+			questionSerialiser.write(partitionedQuestions.get(false));
+			deletedQuestions = partitionedQuestions.get(true);
 
 			LOGGER.info("Questions with specified IDs deleted");
 		} catch (Exception e) {
 			SystemNotification.display(SystemNotificationType.ERROR,
 				Constants.UNEXPECTED_ERROR + e.getClass().getName() + "\nIn: " + this.getClass().getName());
 		}
+		return deletedQuestions;
 	}
 
 	/**
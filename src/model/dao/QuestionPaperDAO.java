@@ -60,6 +60,29 @@ public class QuestionPaperDAO {
 		}
 	}
 
+	/**
+	 * Add several question papers to the papers XML file, reading and writing it only once.
+	 * 
+	 * @param questionPapers - the papers to add
+	 */
+	public void addQuestionPapers(List<QuestionPaper> questionPapers) {
+		try {
+			File xmlFile = new File(Constants.QUESTION_PAPERS_FILE_PATH);
+			List<QuestionPaper> allPapers = getAllQuestionPapers();
+			if (!xmlFile.exists()) {
+				xmlFile.getParentFile().mkdirs();
+				xmlFile.createNewFile();
+			}
+
+			allPapers.addAll(questionPapers);
+			questionPaperSerialiser.write(allPapers);
+			LOGGER.info(questionPapers.size() + " question papers added");
+		} catch (Exception e) {
+			SystemNotification.display(SystemNotificationType.ERROR,
+				Constants.UNEXPECTED_ERROR + e.getClass().getName() + "\nIn: " + this.getClass().getName());
+		}
+	}
+
 	/**
 	 * Delete papers by their unique IDs.
 	 * 
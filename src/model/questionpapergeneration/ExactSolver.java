@@ -0,0 +1,343 @@
+package model.questionpapergeneration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import model.builders.GenerationParametersBuilder;
+
+import view.enums.TerminationReason;
+import view.utils.Constants;
+
+/**
+ * Finds the optimal paper exactly, by dynamic programming, for pools small enough (see
+ * estimateWork). The fitness of a paper depends only on how many of its questions there are of each
+ * type, i.e. (skill level, minutes required) pair, so questions are grouped by type, and the DP
+ * chooses how many of each type to take.
+ * 
+ * The DP state after considering some types is (questions chosen, total minutes, skill level sum).
+ * For a complete paper, in a given state, fitness only increases with the sums of squares of the
+ * skill levels and minutes (they only raise the standard deviations), so each state keeps just the
+ * Pareto front of (skill level sum of squares, minutes sum of squares) pairs reaching it. The best
+ * complete paper is then found among the fronts of the states with the full number of questions.
+ * 
+ * The total minutes of the optimal paper are bounded first, which prunes most states: as fitness
+ * is at most the largest possible standard deviations (half the range of the pool's skill levels,
+ * plus that of its minutes) minus the distance from the requested minutes, a paper whose minutes
+ * are further from those than that bound minus the fitness of a known paper (from a short
+ * simulated annealing run) cannot be optimal.
+ * 
+ * A pool with more DP states than EXACT_SOLVER_MAX_STATES (which couldn't be allocated, or indexed
+ * by an int) is searched by simulated annealing instead, with the run's parameters. If the time
+ * budget expires (or the run is cancelled) before the DP has considered every type, the known
+ * paper is returned.
+ *
+ * @author Sam Barba
+ */
+public class ExactSolver implements PaperGenerationStrategy {
+
+	private static final Logger LOGGER = Logger.getLogger(ExactSolver.class.getName());
+
+	private static final int LOWER_BOUND_ANNEALING_ITERATIONS = 2000;
+
+	/*
+	 * DP entries (one per Pareto-optimal partial paper), held in parallel arrays: the sums of
+	 * squares, and the entry extended, type and number of that type taken to reach it (for
+	 * reconstructing the paper).
+	 */
+	private int[] skillLvlSqSums = new int[1024];
+
+	private int[] minsRequiredSqSums = new int[1024];
+
+	private int[] parents = new int[1024];
+
+	private int[] entryTypes = new int[1024];
+
+	private int[] entryCounts = new int[1024];
+
+	private int numEntries;
+
+	/**
+	 * Estimate the work of solving a pool exactly, before pruning: the number of DP states, times
+	 * the total number of counts of each type which can be taken.
+	 * 
+	 * @param pool     - the pool of possible questions
+	 * @param numGenes - the number of questions per paper
+	 * @return the estimated number of DP transitions
+	 */
+	public static long estimateWork(QuestionPool pool, int numGenes) {
+		long numCounts = 0;
+		for (int[] indexes : groupByType(pool).values()) {
+			numCounts += Math.min(indexes.length, numGenes) + 1;
+		}
+		return numCounts * numStates(pool, numGenes);
+	}
+
+	@Override
+	public GenerationResult generate(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, long startNanos) {
+
+		long numStates = numStates(pool, numGenes);
+		if (numStates > Constants.EXACT_SOLVER_MAX_STATES) {
+			LOGGER.warning("Too many states to solve exactly (" + numStates + "), using simulated annealing instead");
+			return new SimulatedAnnealing().generate(pool, numGenes, paperSkillLvl, paperMinsRequired, parameters,
+				startNanos);
+		}
+
+		List<int[]> typeIndexes = new ArrayList<>(groupByType(pool).values());
+		int minMinsRequired = minMinsRequired(pool);
+		int maxMinsRequired = maxMinsRequired(pool);
+
+		// bound how far the optimal paper's total minutes can be from those requested
+		GenerationParameters annealingParameters = new GenerationParametersBuilder()
+			.withSeed(parameters.getSeed())
+			.withAnnealingIterations(LOWER_BOUND_ANNEALING_ITERATIONS)
+			.withStopOnExactMatch(false)
+			.build();
+		GenerationResult annealingResult = new SimulatedAnnealing().generate(pool, numGenes, paperSkillLvl,
+			paperMinsRequired, annealingParameters, startNanos);
+		double knownFitness = annealingResult.getFinalFitness();
+		double maxStDevs = (maxSkillLvl(pool) - minSkillLvl(pool)) / 2.0 + (maxMinsRequired - minMinsRequired) / 2.0;
+		int maxMinsDist = (int) Math.floor(maxStDevs - knownFitness);
+		int minPaperMins = paperMinsRequired - maxMinsDist;
+		int maxPaperMins = paperMinsRequired + maxMinsDist;
+
+		int maxMinsSum = numGenes * maxMinsRequired;
+		int maxSkillLvlSum = numGenes * maxSkillLvl(pool);
+		int[][] frontier = new int[(int) numStates][];
+		int[] frontierSize = new int[(int) numStates];
+		int[] activeStates = new int[(int) numStates];
+		int numActive = 0;
+
+		// start from the empty paper
+		numEntries = 0;
+		int root = addEntry(0, 0, -1, -1, 0);
+		insertIntoFront(frontier, frontierSize, 0, root);
+		activeStates[numActive++] = 0;
+
+		GenerationProgressListener progressListener = parameters.getProgressListener();
+		boolean hasDeadline = parameters.getTimeBudgetMillis() > 0;
+		long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(parameters.getTimeBudgetMillis());
+
+		for (int t = 0; t < typeIndexes.size(); t++) {
+			if (progressListener != null) {
+				progressListener.progressed(t, typeIndexes.size(), knownFitness);
+				if (progressListener.isCancelled()) {
+					// fall back to the known paper
+					return new GenerationResult(annealingResult.getFittest(), 0, TerminationReason.CANCELLED, null);
+				}
+			}
+			if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+				return new GenerationResult(annealingResult.getFittest(), 0, TerminationReason.DEADLINE, null);
+			}
+
+			int[] indexes = typeIndexes.get(t);
+			int skillLvl = pool.getSkillLvl(indexes[0]);
+			int minsRequired = pool.getMinsRequired(indexes[0]);
+
+			/*
+			 * Update the fronts in place, like a 0/1 knapsack: states are extended in decreasing
+			 * order of question count (the most significant part of the state index), so a state's
+			 * front never already includes questions of this type when it is extended. Taking none
+			 * of the type leaves a state as it is.
+			 */
+			int[] sources = Arrays.copyOf(activeStates, numActive);
+			Arrays.sort(sources);
+
+			for (int a = sources.length - 1; a >= 0; a--) {
+				int state = sources[a];
+				int skillLvlSum = state % (maxSkillLvlSum + 1);
+				int minsSum = state / (maxSkillLvlSum + 1) % (maxMinsSum + 1);
+				int count = state / (maxSkillLvlSum + 1) / (maxMinsSum + 1);
+				int sourceSize = frontierSize[state];
+
+				for (int c = 1; c <= Math.min(indexes.length, numGenes - count); c++) {
+					int nextMinsSum = minsSum + c * minsRequired;
+					int numRemaining = numGenes - count - c;
+					if (nextMinsSum > maxPaperMins) {
+						// taking more of this type only adds minutes
+						break;
+					}
+					if (nextMinsSum + numRemaining * maxMinsRequired < minPaperMins
+						|| nextMinsSum + numRemaining * minMinsRequired > maxPaperMins) {
+						// the rest of the paper couldn't bring its minutes within the bound
+						continue;
+					}
+
+					int nextState = ((count + c) * (maxMinsSum + 1) + nextMinsSum) * (maxSkillLvlSum + 1) + skillLvlSum
+						+ c * skillLvl;
+
+					for (int i = 0; i < sourceSize; i++) {
+						int entry = frontier[state][i];
+						int skillLvlSqSum = skillLvlSqSums[entry] + c * skillLvl * skillLvl;
+						int minsRequiredSqSum = minsRequiredSqSums[entry] + c * minsRequired * minsRequired;
+
+						if (isDominated(frontier[nextState], frontierSize[nextState], skillLvlSqSum,
+							minsRequiredSqSum)) {
+							continue;
+						}
+						if (frontierSize[nextState] == 0) {
+							activeStates[numActive++] = nextState;
+						}
+						insertIntoFront(frontier, frontierSize, nextState,
+							addEntry(skillLvlSqSum, minsRequiredSqSum, entry, t, c));
+					}
+				}
+			}
+		}
+
+		// find the fittest complete paper
+		Individual probe = new Individual(pool, numGenes, paperSkillLvl, paperMinsRequired);
+		int bestEntry = -1;
+		double bestFitness = -Double.MAX_VALUE;
+
+		for (int a = 0; a < numActive; a++) {
+			int state = activeStates[a];
+			int count = state / (maxSkillLvlSum + 1) / (maxMinsSum + 1);
+			if (count != numGenes) {
+				continue;
+			}
+			int skillLvlSum = state % (maxSkillLvlSum + 1);
+			int minsSum = state / (maxSkillLvlSum + 1) % (maxMinsSum + 1);
+
+			for (int i = 0; i < frontierSize[state]; i++) {
+				int entry = frontier[state][i];
+				double fitness = probe.fitnessFromSums(skillLvlSum, skillLvlSqSums[entry], minsSum,
+					minsRequiredSqSums[entry]);
+				if (fitness > bestFitness) {
+					bestFitness = fitness;
+					bestEntry = entry;
+				}
+			}
+		}
+
+		// reconstruct the paper, taking the first questions (in pool order) of each chosen type
+		int[] genes = new int[numGenes];
+		int numChosen = 0;
+		for (int entry = bestEntry; parents[entry] != -1; entry = parents[entry]) {
+			int[] indexes = typeIndexes.get(entryTypes[entry]);
+			for (int i = 0; i < entryCounts[entry]; i++) {
+				genes[numChosen++] = indexes[i];
+			}
+		}
+		Arrays.sort(genes);
+
+		Individual optimal = new Individual(pool, numGenes, paperSkillLvl, paperMinsRequired);
+		optimal.setGenes(genes);
+		optimal.calculateFitness();
+
+		return new GenerationResult(optimal, 0, TerminationReason.OPTIMAL, null);
+	}
+
+	/**
+	 * Group the pool indexes of questions by type (skill level and minutes required), in order of
+	 * first appearance.
+	 */
+	private static Map<Long, int[]> groupByType(QuestionPool pool) {
+		Map<Long, List<Integer>> indexesByType = new LinkedHashMap<>();
+		for (int i = 0; i < pool.size(); i++) {
+			long type = ((long) pool.getSkillLvl(i) << 32) | pool.getMinsRequired(i);
+			indexesByType.computeIfAbsent(type, k -> new ArrayList<>()).add(i);
+		}
+
+		Map<Long, int[]> typeIndexes = new LinkedHashMap<>();
+		indexesByType.forEach((type, indexes) -> typeIndexes.put(type,
+			indexes.stream().mapToInt(Integer::intValue).toArray()));
+		return typeIndexes;
+	}
+
+	private static long numStates(QuestionPool pool, int numGenes) {
+		return (long) (numGenes + 1) * (numGenes * maxMinsRequired(pool) + 1) * (numGenes * maxSkillLvl(pool) + 1);
+	}
+
+	private static int minMinsRequired(QuestionPool pool) {
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < pool.size(); i++) {
+			min = Math.min(min, pool.getMinsRequired(i));
+		}
+		return min;
+	}
+
+	private static int minSkillLvl(QuestionPool pool) {
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < pool.size(); i++) {
+			min = Math.min(min, pool.getSkillLvl(i));
+		}
+		return min;
+	}
+
+	private static int maxMinsRequired(QuestionPool pool) {
+		int max = 0;
+		for (int i = 0; i < pool.size(); i++) {
+			max = Math.max(max, pool.getMinsRequired(i));
+		}
+		return max;
+	}
+
+	private static int maxSkillLvl(QuestionPool pool) {
+		int max = 0;
+		for (int i = 0; i < pool.size(); i++) {
+			max = Math.max(max, pool.getSkillLvl(i));
+		}
+		return max;
+	}
+
+	private int addEntry(int skillLvlSqSum, int minsRequiredSqSum, int parent, int type, int count) {
+		if (numEntries == parents.length) {
+			int newLength = 2 * parents.length;
+			skillLvlSqSums = Arrays.copyOf(skillLvlSqSums, newLength);
+			minsRequiredSqSums = Arrays.copyOf(minsRequiredSqSums, newLength);
+			parents = Arrays.copyOf(parents, newLength);
+			entryTypes = Arrays.copyOf(entryTypes, newLength);
+			entryCounts = Arrays.copyOf(entryCounts, newLength);
+		}
+		skillLvlSqSums[numEntries] = skillLvlSqSum;
+		minsRequiredSqSums[numEntries] = minsRequiredSqSum;
+		parents[numEntries] = parent;
+		entryTypes[numEntries] = type;
+		entryCounts[numEntries] = count;
+		return numEntries++;
+	}
+
+	/**
+	 * Check if a pair of sums of squares is (weakly) dominated by any entry of a state's front.
+	 */
+	private boolean isDominated(int[] front, int size, int skillLvlSqSum, int minsRequiredSqSum) {
+		for (int i = 0; i < size; i++) {
+			if (skillLvlSqSums[front[i]] >= skillLvlSqSum && minsRequiredSqSums[front[i]] >= minsRequiredSqSum) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add an (undominated) entry to a state's front, removing any entries it dominates.
+	 */
+	private void insertIntoFront(int[][] fronts, int[] sizes, int state, int entry) {
+		int[] front = fronts[state];
+		int size = sizes[state];
+
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			boolean dominated = skillLvlSqSums[entry] >= skillLvlSqSums[front[i]]
+				&& minsRequiredSqSums[entry] >= minsRequiredSqSums[front[i]];
+			if (!dominated) {
+				front[kept++] = front[i];
+			}
+		}
+
+		if (front == null) {
+			front = new int[2];
+		} else if (kept == front.length) {
+			front = Arrays.copyOf(front, 2 * front.length);
+		}
+		front[kept++] = entry;
+		fronts[state] = front;
+		sizes[state] = kept;
+	}
+}
@@ -0,0 +1,133 @@
+package model.questionpapergeneration;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, direct-mapped cache of fitnesses, keyed by the order-independent hash of a
+ * chromosome's questions (see Individual.getChromosomeHash), so that a chromosome already scored
+ * in the run is not scored again. A new entry simply overwrites whichever entry shares its slot.
+ * 
+ * The cache can be shared by islands evolving on different threads without locking: each slot
+ * stores its fitness bits and the hash XOR those bits, so an entry torn by a concurrent write
+ * fails verification and is treated as a miss. As fitness depends only on the set of questions, a
+ * hit gives exactly the fitness that calculating it would, unless two different chromosomes share a
+ * 64-bit hash. The chromosome itself isn't stored to rule this out, so such a collision would
+ * return the other chromosome's fitness, but it is improbable at the sizes of a run (around 1 in
+ * 10^7 even for a million distinct chromosomes).
+ * 
+ * The time saved is estimated by timing a sample of lookups (about 1 in 64), as timing every one
+ * would cost more than a fitness calculation itself.
+ *
+ * @author Sam Barba
+ */
+public class FitnessCache {
+
+	private static final int TIMING_SAMPLE_MASK = 63;
+
+	private long[] verifiers;
+
+	private long[] fitnessBits;
+
+	private int mask;
+
+	private LongAdder hits = new LongAdder();
+
+	private LongAdder misses = new LongAdder();
+
+	private LongAdder sampledHitNanos = new LongAdder();
+
+	private LongAdder sampledHits = new LongAdder();
+
+	private LongAdder sampledMissNanos = new LongAdder();
+
+	private LongAdder sampledMisses = new LongAdder();
+
+	/**
+	 * Create an empty cache.
+	 * 
+	 * @param capacity - the maximum number of entries (rounded up to a power of 2)
+	 */
+	public FitnessCache(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		this.verifiers = new long[size];
+		this.fitnessBits = new long[size];
+		this.mask = size - 1;
+
+		// an empty slot would otherwise verify for a chromosome hash of 0, so give each a distinct verifier
+		for (int i = 0; i < size; i++) {
+			verifiers[i] = i + 1L;
+		}
+	}
+
+	/**
+	 * Get the fitness of an individual from the cache, or calculate (and cache) it on a miss.
+	 * 
+	 * @param individual - the individual to get the fitness of
+	 * @return the fitness of the individual
+	 */
+	public double getFitness(Individual individual) {
+		long hash = individual.getChromosomeHash();
+		boolean sampled = (hash & TIMING_SAMPLE_MASK) == 0;
+		long start = sampled ? System.nanoTime() : 0;
+
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		long bits = fitnessBits[slot];
+		if ((verifiers[slot] ^ bits) == hash) {
+			hits.increment();
+			if (sampled) {
+				sampledHitNanos.add(System.nanoTime() - start);
+				sampledHits.increment();
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		double fitness = individual.computeFitness();
+		bits = Double.doubleToRawLongBits(fitness);
+		fitnessBits[slot] = bits;
+		verifiers[slot] = hash ^ bits;
+
+		misses.increment();
+		if (sampled) {
+			sampledMissNanos.add(System.nanoTime() - start);
+			sampledMisses.increment();
+		}
+		return fitness;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public double getHitRate() {
+		long lookups = getHits() + getMisses();
+		return lookups == 0 ? 0 : (double) getHits() / lookups;
+	}
+
+	/**
+	 * Estimate the time saved by the cache: the number of hits multiplied by how much longer a miss
+	 * (calculating and storing the fitness) takes than a hit, on average over the sampled lookups.
+	 * This is negative if a lookup costs more than the calculation it saves.
+	 * 
+	 * @return the estimated time saved, in nanoseconds
+	 */
+	public long getEstimatedNanosSaved() {
+		long numSampledHits = sampledHits.sum();
+		long numSampledMisses = sampledMisses.sum();
+		if (numSampledHits == 0 || numSampledMisses == 0) {
+			return 0;
+		}
+		double meanHitNanos = (double) sampledHitNanos.sum() / numSampledHits;
+		double meanMissNanos = (double) sampledMissNanos.sum() / numSampledMisses;
+		return Math.round(getHits() * (meanMissNanos - meanHitNanos));
+	}
+
+	@Override
+	public String toString() {
+		return getHits() + " hits, " + getMisses() + " misses (" + String.format("%.1f", 100 * getHitRate())
+			+ "% hit rate), est. " + getEstimatedNanosSaved() / 1000 + " us saved";
+	}
+}
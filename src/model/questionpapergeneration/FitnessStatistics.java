@@ -0,0 +1,60 @@
+package model.questionpapergeneration;
+
+/**
+ * Represents the mean, highest and lowest fitnesses of a population, along with its fittest and
+ * least fit individuals, all found in a single pass over the population.
+ *
+ * @author Sam Barba
+ */
+public class FitnessStatistics {
+
+	private double mean;
+
+	private Individual fittest;
+
+	private Individual leastFit;
+
+	/**
+	 * Calculate the statistics of an (already evaluated) population.
+	 * 
+	 * @param population - the population to traverse
+	 */
+	public FitnessStatistics(Individual... population) {
+		double total = 0;
+		fittest = population[0];
+		leastFit = population[0];
+
+		for (Individual individual : population) {
+			double fitness = individual.getFitness();
+			total += fitness;
+			if (fitness > fittest.getFitness()) {
+				fittest = individual;
+			}
+			if (fitness < leastFit.getFitness()) {
+				leastFit = individual;
+			}
+		}
+
+		mean = total / population.length;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public double getHighest() {
+		return fittest.getFitness();
+	}
+
+	public double getLowest() {
+		return leastFit.getFitness();
+	}
+
+	public Individual getFittest() {
+		return fittest;
+	}
+
+	public Individual getLeastFit() {
+		return leastFit;
+	}
+}
@@ -1,29 +1,29 @@
 package model.questionpapergeneration;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
-
-import model.persisted.Question;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import view.utils.Constants;
 
 /**
  * This class is a singleton, the use of which is to perform evolutionary methods such as selection
  * and mutation, when generating question papers.
+ * 
+ * The singleton itself holds no per-run state: every random operator takes the SplittableRandom
+ * stream of the run (or worker) calling it, so that threads never contend on a shared generator,
+ * and a run is reproducible from its seed.
  *
  * @author Sam Barba
  */
 public class GAUtils {
 
-	private static final Random RAND = new Random();
-
 	private static GAUtils instance;
 
+	private ForkJoinPool evaluationPool;
+
 	private GAUtils() {
 	}
 
@@ -35,30 +35,35 @@ public class GAUtils {
 	}
 
 	/**
-	 * Determine the optimal number of questions (genes) in a question paper, given list of possible
-	 * questions to use, and user-defined paper parameters.
+	 * Determine the optimal number of questions (genes) in a question paper, given the pool of
+	 * possible questions to use, and user-defined paper parameters.
 	 * 
-	 * @param questions         - list of possible questions to include in paper
+	 * @param pool              - pool of possible questions to include in paper
 	 * @param paperSkillLvl     - the user-selected (mean) skill level of the final paper
 	 * @param paperMinsRequired - the user-selected approx. duration (mins) for the final paper
 	 * @return calculated number of questions
 	 */
-	public int calculateChromosomeLength(List<Question> questions, int paperSkillLvl, int paperMinsRequired) {
-		double meanMinsRequired = questions.stream()
-			.filter(q -> q.getSkillLevel().getIntVal() == paperSkillLvl)
-			.mapToDouble(Question::getMinutesRequired)
-			.average()
-			.getAsDouble();
+	public int calculateChromosomeLength(QuestionPool pool, int paperSkillLvl, int paperMinsRequired) {
+		int totalMinsOfSkillLvl = 0;
+		int numOfSkillLvl = 0;
+		int totalMins = 0;
+
+		for (int i = 0; i < pool.size(); i++) {
+			if (pool.getSkillLvl(i) == paperSkillLvl) {
+				totalMinsOfSkillLvl += pool.getMinsRequired(i);
+				numOfSkillLvl++;
+			}
+			totalMins += pool.getMinsRequired(i);
+		}
+
+		double meanMinsRequired = numOfSkillLvl == 0 ? 0 : (double) totalMinsOfSkillLvl / numOfSkillLvl;
 
 		if ((int) meanMinsRequired == 0) {
 			/*
 			 * If no questions exist of the user-selected paper skill level, then take the mean
 			 * across ALL existing skill levels.
 			 */
-			meanMinsRequired = questions.stream()
-				.mapToDouble(Question::getMinutesRequired)
-				.average()
-				.getAsDouble();
+			meanMinsRequired = (double) totalMins / pool.size();
 		}
 
 		/*
@@ -66,21 +71,99 @@ public class GAUtils {
 		 */
 		int numQuestions = (int) Math.floor((double) paperMinsRequired / meanMinsRequired);
 
-		return numQuestions > questions.size() ? questions.size() : numQuestions;
+		return numQuestions > pool.size() ? pool.size() : numQuestions;
+	}
+
+	/**
+	 * Derive the population size of a GA run from the size of its search space: POP_SIZE_PER_BIT
+	 * individuals per bit (see searchSpaceBits), within MIN_POP_SIZE and MAX_POP_SIZE. So a
+	 * population grows with the log of the number of possible papers, rather than being fixed. It
+	 * is also never larger than the number of possible papers, as then it would only hold repeats.
+	 * 
+	 * E.g. 8 questions from a pool of 200: 45.6 bits, so 913 individuals; from a pool of 100,000:
+	 * 117.6 bits, so 2352 individuals; 5 from a pool of 10: only 252 possible papers, so 160.
+	 * 
+	 * @param poolSize - the number of questions in the pool
+	 * @param numGenes - the number of questions (genes) per paper
+	 * @return the population size
+	 */
+	public int calculatePopulationSize(int poolSize, int numGenes) {
+		double bits = searchSpaceBits(poolSize, numGenes);
+		int popSize = clamp((int) Math.round(Constants.POP_SIZE_PER_BIT * bits), Constants.MIN_POP_SIZE,
+			Constants.MAX_POP_SIZE);
+
+		// 2^bits possible papers (at least 2, so that there can be a pair of parents)
+		double numPossiblePapers = Math.max(2, Math.pow(2, bits));
+		return (int) Math.min(popSize, Math.round(numPossiblePapers));
+	}
+
+	/**
+	 * Derive the maximum number of generations of a GA run from the size of its search space:
+	 * GENERATIONS_PER_BIT generations per bit (see searchSpaceBits), within MIN_GENERATIONS and
+	 * MAX_GENERATIONS. Together with calculatePopulationSize, the work of a run grows with roughly
+	 * the square of the log of the number of possible papers.
+	 * 
+	 * @param poolSize - the number of questions in the pool
+	 * @param numGenes - the number of questions (genes) per paper
+	 * @return the maximum number of generations
+	 */
+	public int calculateMaxGenerations(int poolSize, int numGenes) {
+		double bits = searchSpaceBits(poolSize, numGenes);
+		return clamp((int) Math.ceil(Constants.GENERATIONS_PER_BIT * bits), Constants.MIN_GENERATIONS,
+			Constants.MAX_GENERATIONS);
+	}
+
+	/**
+	 * Calculate the size of the search space in bits, i.e. log2 of the number of possible papers
+	 * (poolSize choose numGenes), summed term by term so that it never overflows.
+	 */
+	private static double searchSpaceBits(int poolSize, int numGenes) {
+		int k = Math.min(numGenes, poolSize - numGenes);
+		double bits = 0;
+		for (int i = 1; i <= k; i++) {
+			bits += Math.log((double) (poolSize - k + i) / i);
+		}
+		return bits / Math.log(2);
+	}
+
+	private static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(max, value));
 	}
 
 	/**
 	 * Initialise an array of individuals, which can be used to represent the population or
-	 * offspring.
+	 * offspring (or any other preallocated slots, such as those crossover writes into).
 	 * 
+	 * @param numIndividuals    - the number of individuals in the array
+	 * @param pool              - the pool of questions which the individuals' genes index into
+	 * @param numGenes          - the number of questions to use (genes per chromosome)
 	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
 	 * @param paperMinsRequired - the user-selected minutes required for the paper
 	 * @return the array of individuals
 	 */
-	public Individual[] initialiseIndividualArray(int paperSkillLvl, int paperMinsRequired) {
-		Individual[] individuals = new Individual[Constants.POP_SIZE];
-		for (int i = 0; i < Constants.POP_SIZE; i++) {
-			individuals[i] = new Individual(paperSkillLvl, paperMinsRequired);
+	public Individual[] initialiseIndividualArray(int numIndividuals, QuestionPool pool, int numGenes,
+		int paperSkillLvl, int paperMinsRequired) {
+
+		return initialiseIndividualArray(numIndividuals, pool, 1, numGenes, paperSkillLvl, paperMinsRequired);
+	}
+
+	/**
+	 * Initialise an array of individuals each holding parallel forms of a paper (see Individual).
+	 * 
+	 * @param numIndividuals    - the number of individuals in the array
+	 * @param pool              - the pool of questions which the individuals' genes index into
+	 * @param numForms          - the number of forms per individual
+	 * @param formLength        - the number of questions (genes) per form
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of each form
+	 * @param paperMinsRequired - the user-selected minutes required for each form
+	 * @return the array of individuals
+	 */
+	public Individual[] initialiseIndividualArray(int numIndividuals, QuestionPool pool, int numForms,
+		int formLength, int paperSkillLvl, int paperMinsRequired) {
+
+		Individual[] individuals = new Individual[numIndividuals];
+		for (int i = 0; i < numIndividuals; i++) {
+			individuals[i] = new Individual(pool, numForms, formLength, paperSkillLvl, paperMinsRequired);
 		}
 		return individuals;
 	}
@@ -89,20 +172,110 @@ public class GAUtils {
 	 * Randomise the genes of the individuals in a population.
 	 * 
 	 * @param population - the array of individuals whose genes will be randomised
-	 * @param numGenes   - the number of questions to use (genes per chromosome)
-	 * @param questions  - list of questions to use when selecting random genes
+	 * @param sampler    - the sampler to draw distinct random questions from the pool with
+	 * @param rand       - the random number stream of this run
 	 */
-	public void randomisePopulationGenes(Individual[] population, int numGenes, List<Question> questions) {
-		List<Question> questionsCopy = new ArrayList<>();
+	public void randomisePopulationGenes(Individual[] population, IndexSampler sampler, SplittableRandom rand) {
+		int[] randGenes = new int[population[0].getNumGenes()];
 
 		for (Individual individual : population) {
-			questionsCopy.clear();
-			questionsCopy.addAll(questions);
+			// sampling without replacement, to avoid repeating genes
+			sampler.sample(randGenes, rand);
+			individual.setGenes(randGenes);
+		}
+	}
+
+	/**
+	 * Warm-start a randomised population by seeding its first individuals: one from each seed
+	 * chromosome (the questions of a previous paper), then the rest by greedy construction. A seed
+	 * with more questions than the chromosome is cut down to a random subset of them, and one with
+	 * fewer is made up with random questions, as the pool and paper length may have changed since.
+	 *
+	 * @param population      - the randomised population, whose first individuals are seeded
+	 * @param numSeeded       - the number of individuals to seed
+	 * @param seedChromosomes - the pool indexes of the questions of each previous paper
+	 * @param sampler         - the sampler to draw distinct random questions from the pool with
+	 * @param rand            - the random number stream of this run
+	 */
+	public void warmStartPopulation(Individual[] population, int numSeeded, List<int[]> seedChromosomes,
+		IndexSampler sampler, SplittableRandom rand) {
+
+		int[] genes = new int[population[0].getNumGenes()];
+
+		for (int i = 0; i < Math.min(numSeeded, population.length); i++) {
+			if (i < seedChromosomes.size()) {
+				fillFromSeed(genes, seedChromosomes.get(i), sampler, rand);
+				population[i].setGenes(genes);
+			} else {
+				constructGreedily(population[i], sampler, rand);
+			}
+		}
+	}
+
+	/**
+	 * Fill a chromosome with (a random subset of) the questions of a seed, then random distinct
+	 * questions not in the seed.
+	 */
+	private void fillFromSeed(int[] genes, int[] seed, IndexSampler sampler, SplittableRandom rand) {
+		int[] shuffledSeed = seed.clone();
+		int numFromSeed = Math.min(seed.length, genes.length);
+
+		// partial Fisher-Yates shuffle, so a longer seed contributes a random subset
+		for (int i = 0; i < numFromSeed; i++) {
+			int j = i + rand.nextInt(shuffledSeed.length - i);
+			genes[i] = shuffledSeed[j];
+			shuffledSeed[j] = shuffledSeed[i];
+		}
+
+		sampler.reset();
+		for (int i = numFromSeed; i < genes.length;) {
+			int candidate = sampler.next(rand);
+			boolean inSeed = false;
+			for (int j = 0; j < numFromSeed && !inSeed; j++) {
+				inSeed = genes[j] == candidate;
+			}
+			if (!inSeed) {
+				genes[i++] = candidate;
+			}
+		}
+	}
+
+	/**
+	 * Construct a chromosome greedily from an individual's (random) genes: each gene in turn is set
+	 * to the fittest of GREEDY_CANDIDATES random questions not in the chromosome, unless the current
+	 * gene is fitter still. Sampling the candidates keeps greedy chromosomes diverse, and each is
+	 * evaluated in O(1) from the running sums (see Individual.fitnessWithGene), so construction
+	 * costs O(genes * GREEDY_CANDIDATES) rather than the O(genes * pool size) of a local search
+	 * sweep.
+	 *
+	 * @param individual - the individual to construct, which is left evaluated
+	 * @param sampler    - the sampler to draw distinct random questions from the pool with
+	 * @param rand       - the random number stream of this run
+	 */
+	public void constructGreedily(Individual individual, IndexSampler sampler, SplittableRandom rand) {
+		int numCandidates = Math.min(Constants.GREEDY_CANDIDATES,
+			individual.getPool().size() - individual.getNumGenes());
+		individual.calculateFitness();
+
+		for (int i = 0; i < individual.getNumGenes(); i++) {
+			int bestCandidate = -1;
+			double bestFitness = individual.getFitness();
+
+			sampler.reset();
+			for (int c = 0; c < numCandidates; c++) {
+				int candidate = sampler.next(rand);
+				if (!individual.containsGene(candidate)) {
+					double fitness = individual.fitnessWithGene(i, candidate);
+					if (fitness > bestFitness) {
+						bestCandidate = candidate;
+						bestFitness = fitness;
+					}
+				}
+			}
 
-			for (int j = 0; j < numGenes; j++) {
-				// question is deleted after use, to avoid repeating genes (.remove instead of .get)
-				Question randGene = questionsCopy.remove(RAND.nextInt(questionsCopy.size()));
-				individual.getGenes().add(randGene);
+			if (bestCandidate >= 0) {
+				individual.setGene(i, bestCandidate);
+				individual.calculateFitness();
 			}
 		}
 	}
@@ -112,82 +285,118 @@ public class GAUtils {
 	 * 
 	 * @param population - the set of current population individuals in the current population
 	 * @param offspring  - the set of current offspring
+	 * @param rand       - the random number stream of this run
 	 */
-	public void selection(Individual[] population, Individual[] offspring) {
+	public void selection(Individual[] population, Individual[] offspring, SplittableRandom rand) {
 		switch (Constants.SELECTION_TYPE) {
 			case TOURNAMENT:
-				List<Individual> tournamentIndividuals = new ArrayList<>();
-
 				for (Individual individual : offspring) {
-					tournamentIndividuals.clear();
-
-					for (int n = 0; n < Constants.TOURNAMENT_SIZE; n++) {
-						tournamentIndividuals.add(population[RAND.nextInt(Constants.POP_SIZE)]);
-					}
-
-					Individual tournamentFittest = tournamentIndividuals.stream()
-						.max(Comparator.comparing(Individual::getFitness))
-						.get();
-
-					individual.setGenes(tournamentFittest.getGenes());
+					individual.copyFrom(runTournament(population, rand));
 				}
 				break;
 			default: // roulette wheel
-				// populate roulette wheel based on each individual's fitness
-				List<Individual> rouletteWheel = new ArrayList<>();
-				double worstFitness = findLeastFit(population).getFitness();
-				double bestFitness = findFittest(population).getFitness();
-				int numTimesToAdd;
-
-				for (Individual individual : population) {
-					double thisFitness = individual.getFitness();
+				/*
+				 * Rather than materialising a wheel with each individual added up to 100 times, hold
+				 * the cumulative slot counts: individual i owns the slots from
+				 * cumulativeSlots[i - 1] (inclusive) to cumulativeSlots[i] (exclusive). This gives the
+				 * same selection probabilities in O(pop) memory, with O(log pop) sampling.
+				 */
+				int[] cumulativeSlots = new int[population.length];
+				FitnessStatistics statistics = calculateStatistics(population);
+				double worstFitness = statistics.getLowest();
+				double bestFitness = statistics.getHighest();
+				int totalSlots = 0;
+
+				for (int i = 0; i < population.length; i++) {
+					double thisFitness = population[i].getFitness();
 					/*
 					 * E.g. If thisFitness = -4.5, worstFitness = -17, bestFitness = 2: then
-					 * numTimesToAdd = 66
+					 * numSlots = 66. If all fitnesses are equal, each individual gets 1 slot.
 					 */
-					numTimesToAdd = (int) Math.round(map(thisFitness, worstFitness, bestFitness, 1, 100));
+					int numSlots = bestFitness == worstFitness ? 1
+						: (int) Math.round(map(thisFitness, worstFitness, bestFitness, 1, 100));
 
-					// the fitter the individual, the more it gets added, so the higher the chance of selection
-					for (int n = 0; n < numTimesToAdd; n++) {
-						rouletteWheel.add(individual);
-					}
+					// the fitter the individual, the more slots it gets, so the higher the chance of selection
+					totalSlots += numSlots;
+					cumulativeSlots[i] = totalSlots;
 				}
 
 				// select random individuals from wheel
 				for (Individual individual : offspring) {
-					Individual rouletteIndividual = rouletteWheel.get(RAND.nextInt(rouletteWheel.size()));
-					individual.setGenes(rouletteIndividual.getGenes());
+					int slot = rand.nextInt(totalSlots);
+					individual.copyFrom(population[findSlotOwner(cumulativeSlots, slot)]);
 				}
 		}
 	}
 
+	/**
+	 * Pick the fittest of TOURNAMENT_SIZE individuals drawn at random (with replacement) from the
+	 * population.
+	 * 
+	 * @param population - the individuals to draw from
+	 * @param rand       - the random number stream of this run
+	 * @return the tournament winner
+	 */
+	private Individual runTournament(Individual[] population, SplittableRandom rand) {
+		Individual tournamentFittest = population[rand.nextInt(population.length)];
+
+		for (int n = 1; n < Constants.TOURNAMENT_SIZE; n++) {
+			Individual contender = population[rand.nextInt(population.length)];
+			if (contender.getFitness() > tournamentFittest.getFitness()) {
+				tournamentFittest = contender;
+			}
+		}
+		return tournamentFittest;
+	}
+
+	/**
+	 * Binary search for the individual owning a roulette wheel slot, i.e. the first index whose
+	 * cumulative slot count exceeds the slot.
+	 * 
+	 * @param cumulativeSlots - the (strictly increasing) cumulative slot counts of the population
+	 * @param slot            - the slot chosen on the wheel
+	 * @return the index of the individual owning the slot
+	 */
+	private static int findSlotOwner(int[] cumulativeSlots, int slot) {
+		int lo = 0;
+		int hi = cumulativeSlots.length - 1;
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cumulativeSlots[mid] > slot) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
 	/**
 	 * Perform crossover on pairs of individuals in the offspring set at random, depending on the
 	 * crossover rate.
 	 * 
-	 * @param offspring         - the array representing the offspring set
-	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
-	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 * @param offspring - the array representing the offspring set
+	 * @param children  - 2 preallocated individuals which the new offspring are written into, so that
+	 *                  crossover allocates nothing
+	 * @param rand      - the random number stream of this run
 	 */
-	public void crossover(Individual[] offspring, int paperSkillLvl, int paperMinsRequired) {
-		for (int i = 0; i < Constants.POP_SIZE; i += 2) {
-			if (RAND.nextDouble() < Constants.CROSSOVER_RATE && i < Constants.POP_SIZE - 1) {
+	public void crossover(Individual[] offspring, Individual[] children, SplittableRandom rand) {
+		for (int i = 0; i < offspring.length; i += 2) {
+			if (rand.nextDouble() < Constants.CROSSOVER_RATE && i < offspring.length - 1) {
 				/*
 				 * In each iteration, 2 possible offspring are found by calling recombineGenes
 				 * twice, but switching the parents around. The fittest of the 2 is then kept.
 				 */
-				Individual newOffspring1 = recombineGenes(offspring[i], offspring[i + 1], paperSkillLvl,
-					paperMinsRequired);
-
-				Individual newOffspring2 = recombineGenes(offspring[i + 1], offspring[i], paperSkillLvl,
-					paperMinsRequired);
+				recombineGenes(offspring[i], offspring[i + 1], children[0]);
+				recombineGenes(offspring[i + 1], offspring[i], children[1]);
 
 				// replace with fittest of the 2 new offspring, only if fitter than current offspring
-				Individual fittestOffspring = findFittest(newOffspring1, newOffspring2);
-				evaluate(fittestOffspring);
+				Individual fittestOffspring = children[0].getFitness() >= children[1].getFitness() ? children[0]
+					: children[1];
 
 				if (fittestOffspring.getFitness() > offspring[i].getFitness()) {
-					offspring[i].setGenes(fittestOffspring.getGenes());
+					offspring[i].copyFrom(fittestOffspring);
 				}
 			}
 		}
@@ -198,40 +407,20 @@ public class GAUtils {
 	 * (questions) in the offspring chromosome are avoided; and because the selection of genes from
 	 * the fitter parent is biased, in order to ensure more selection from their genotype).
 	 * 
-	 * @param p1                - the first parent
-	 * @param p2                - the second parent
-	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
-	 * @param paperMinsRequired - the user-selected minutes required for the paper
-	 * @return a new offspring
+	 * @param p1        - the first parent
+	 * @param p2        - the second parent
+	 * @param offspring - the individual to overwrite with the new offspring
 	 */
-	private Individual recombineGenes(Individual p1, Individual p2, int paperSkillLvl, int paperMinsRequired) {
+	private void recombineGenes(Individual p1, Individual p2, Individual offspring) {
 		/*
 		 * The higher the selection bias for parent 1, the more genes from them to add to the
 		 * offspring's chromosome.
 		 */
 		double probChooseP1 = calculateP1selectionBias(p1, p2);
-		int numGenesFromP1 = (int) Math.round(probChooseP1 * p1.getGenes().size());
-
-		Map<Integer, Question> p1genes = new HashMap<>();
-		Map<Integer, Question> p2genes = new HashMap<>();
-
-		for (int i = 0; i < numGenesFromP1; i++) {
-			Question p1gene = p1.getGenes().get(i);
-			p1genes.put(p1gene.getId(), p1gene);
-		}
-
-		for (Question p2gene : p2.getGenes()) {
-			// ensure chromosome size is correct, and no repeated genes
-			if (p1genes.size() + p2genes.size() < p1.getGenes().size() && !p1genes.containsKey(p2gene.getId())) {
-				p2genes.put(p2gene.getId(), p2gene);
-			}
-		}
+		int numGenesFromP1 = (int) Math.round(probChooseP1 * p1.getNumGenes());
 
-		Individual offspring = new Individual(paperSkillLvl, paperMinsRequired);
-		offspring.getGenes().addAll(p1genes.values());
-		offspring.getGenes().addAll(p2genes.values());
-
-		return offspring;
+		offspring.recombine(p1, p2, numGenesFromP1);
+		offspring.calculateFitness();
 	}
 
 	/**
@@ -274,37 +463,237 @@ public class GAUtils {
 	 * gene, randomly selected via the mutation rate.
 	 * 
 	 * @param offspring - the array representing the offspring set
-	 * @param questions - the set of questions to choose from, ensuring question isn't already in
-	 *                  Individual
+	 * @param sampler   - the sampler to draw random questions from the pool with, ensuring question
+	 *                  isn't already in Individual
+	 * @param rand      - the random number stream of this run
 	 */
-	public void mutation(Individual[] offspring, List<Question> questions) {
-		int numGenes = offspring[0].getGenes().size();
-		List<Question> questionsCopy = new ArrayList<>();
-
+	public void mutation(Individual[] offspring, IndexSampler sampler, SplittableRandom rand) {
 		for (Individual individual : offspring) {
-			if (individual.containsAllPossibleGenes(questions)) {
-				// cannot mutate because there would be a duplicate gene, so move on to next offspring
-				continue;
+			mutate(individual, sampler, rand);
+		}
+	}
+
+	/**
+	 * Randomly reset each gene of an individual with probability MUTATION_RATE (see mutation).
+	 * 
+	 * @param individual - the individual to mutate
+	 * @param sampler    - the sampler to draw random questions from the pool with
+	 * @param rand       - the random number stream of this run
+	 */
+	private void mutate(Individual individual, IndexSampler sampler, SplittableRandom rand) {
+		if (individual.containsAllPossibleGenes()) {
+			// cannot mutate because there would be a duplicate gene
+			return;
+		}
+
+		for (int j = 0; j < individual.getNumGenes(); j++) {
+			if (rand.nextDouble() < Constants.MUTATION_RATE) {
+				/*
+				 * Ensure offspring to mutate doesn't already contain gene, by drawing random
+				 * questions without replacement until one is found which isn't in the chromosome
+				 * (there must be one, as it doesn't contain all possible genes)
+				 */
+				sampler.reset();
+				int randGene = sampler.next(rand);
+
+				while (individual.containsGene(randGene)) {
+					randGene = sampler.next(rand);
+				}
+
+				individual.setGene(j, randGene);
 			}
+		}
+	}
+
+	/**
+	 * Evolve a population by one generation: selection of the offspring, crossover, mutation, then
+	 * selection of the next population from the offspring. Every buffer is preallocated by the
+	 * caller, so once warmed up a generation allocates nothing (with tournament selection).
+	 * 
+	 * @param population - the current population, which is overwritten with the next one
+	 * @param offspring  - the offspring set (its previous contents are overwritten)
+	 * @param children   - 2 preallocated individuals for crossover to write into
+	 * @param sampler    - the sampler to draw random questions from the pool with
+	 * @param rand       - the random number stream of this run
+	 */
+	public void runGeneration(Individual[] population, Individual[] offspring, Individual[] children,
+		IndexSampler sampler, SplittableRandom rand) {
 
-			questionsCopy.clear();
-			questionsCopy.addAll(questions);
+		selection(population, offspring, rand);
+		evaluate(offspring);
 
-			for (int j = 0; j < numGenes; j++) {
-				if (RAND.nextDouble() < Constants.MUTATION_RATE && !individual.containsAllPossibleGenes(questions)) {
-					/*
-					 * Ensure offspring to mutate doesn't already contain gene, so remove random
-					 * question instead of using questionsCopy.get
-					 */
-					Question randGene = questionsCopy.remove(RAND.nextInt(questionsCopy.size()));
+		crossover(offspring, children, rand);
+		evaluate(offspring);
+
+		mutation(offspring, sampler, rand);
+		evaluate(offspring);
+
+		/*
+		 * In this final selection step, the next population is defined using the new offspring, so
+		 * 'population' and 'offspring' are switched round when calling the function.
+		 */
+		selection(offspring, population, rand);
+		evaluate(population);
+	}
+
+	/**
+	 * Refine an individual by first-improvement swap local search (hill climbing): for each gene in
+	 * turn, scan the questions not in the chromosome (from a random starting point) and make the
+	 * first swap which improves fitness. Each swap is evaluated in O(1) from the running sums (see
+	 * Individual.fitnessWithGene), so a sweep costs O(genes * pool size). Sweeps repeat until one
+	 * finds no improvement, or LOCAL_SEARCH_MAX_PASSES is reached.
+	 * 
+	 * @param individual - the individual to refine
+	 * @param rand       - the random number stream of this run
+	 * @return the number of improving swaps made
+	 */
+	public int localSearch(Individual individual, SplittableRandom rand) {
+		if (individual.isDirty()) {
+			individual.calculateFitness();
+		}
+		if (individual.containsAllPossibleGenes()) {
+			// no question to swap in
+			return 0;
+		}
+
+		int poolSize = individual.getPool().size();
+		int numSwaps = 0;
+
+		for (int pass = 0; pass < Constants.LOCAL_SEARCH_MAX_PASSES; pass++) {
+			boolean improved = false;
+			int start = rand.nextInt(poolSize);
+
+			for (int i = 0; i < individual.getNumGenes(); i++) {
+				for (int c = 0; c < poolSize; c++) {
+					int candidate = start + c < poolSize ? start + c : start + c - poolSize;
+
+					if (!individual.containsGene(candidate)
+						&& individual.fitnessWithGene(i, candidate) > individual.getFitness()) {
 
-					while (individual.containsGene(randGene)) {
-						randGene = questionsCopy.remove(RAND.nextInt(questionsCopy.size()));
+						// first improvement: make the swap, then move on to the next gene
+						individual.setGene(i, candidate);
+						individual.calculateFitness();
+						numSwaps++;
+						improved = true;
+						break;
 					}
+				}
+			}
+
+			if (!improved) {
+				break;
+			}
+		}
+		return numSwaps;
+	}
 
-					individual.getGenes().set(j, randGene);
+	/**
+	 * Evolve a population by one generation as in runGeneration, but carry the fittest individuals
+	 * over unchanged: they are copied out before the generation, then each replaces the least fit
+	 * individual of the next population if fitter, so the best fitness never decreases.
+	 * 
+	 * @param population - the current population, which is overwritten with the next one
+	 * @param offspring  - the offspring set (its previous contents are overwritten)
+	 * @param children   - 2 preallocated individuals for crossover to write into
+	 * @param elites     - preallocated individuals to hold the elites (one per elite)
+	 * @param sampler    - the sampler to draw random questions from the pool with
+	 * @param rand       - the random number stream of this run
+	 */
+	public void runElitistGeneration(Individual[] population, Individual[] offspring, Individual[] children,
+		Individual[] elites, IndexSampler sampler, SplittableRandom rand) {
+
+		copyFittest(population, elites);
+		runGeneration(population, offspring, children, sampler, rand);
+
+		for (Individual elite : elites) {
+			replaceLeastFitIfFitter(population, elite);
+		}
+	}
+
+	/**
+	 * Evolve a population by one steady-state generation: for each child slot, breed a child from
+	 * 2 tournament-selected parents (by crossover, depending on the crossover rate, then mutation),
+	 * and let it replace the least fit individual if fitter. Rather than rebuilding the whole
+	 * population, a generation breeds and evaluates only children.length individuals, and finds the
+	 * least fit via a heap rather than a scan.
+	 * 
+	 * Tournament selection is used regardless of SELECTION_TYPE, as a roulette wheel would have to
+	 * be rebuilt over the whole population for every child.
+	 * 
+	 * @param population   - the current (evaluated) population, updated in place
+	 * @param leastFitHeap - the heap of the population, up to date with its fitnesses
+	 * @param children     - preallocated individuals to breed the children into (one per replacement)
+	 * @param sampler      - the sampler to draw random questions from the pool with
+	 * @param rand         - the random number stream of this run
+	 */
+	public void runSteadyStateGeneration(Individual[] population, LeastFitHeap leastFitHeap, Individual[] children,
+		IndexSampler sampler, SplittableRandom rand) {
+
+		for (Individual child : children) {
+			Individual p1 = runTournament(population, rand);
+			Individual p2 = runTournament(population, rand);
+
+			if (rand.nextDouble() < Constants.CROSSOVER_RATE) {
+				recombineGenes(p1, p2, child);
+			} else {
+				child.copyFrom(p1);
+			}
+			mutate(child, sampler, rand);
+			if (child.isDirty()) {
+				child.calculateFitness();
+			}
+
+			leastFitHeap.replaceLeastFit(child);
+		}
+	}
+
+	/**
+	 * Copy the fittest individuals of a population, fittest first, into the given slots. Ties are
+	 * broken by population order; nothing is allocated, as the population is scanned once per slot
+	 * (the number of elites is small).
+	 * 
+	 * @param population - the population to copy from
+	 * @param fittest    - the slots to copy into
+	 */
+	private void copyFittest(Individual[] population, Individual[] fittest) {
+		int prevIdx = -1;
+
+		for (Individual slot : fittest) {
+			int bestIdx = -1;
+			for (int i = 0; i < population.length; i++) {
+				// only consider individuals ranked after the previous pick
+				if (prevIdx != -1 && !ranksBelow(population, i, prevIdx)) {
+					continue;
+				}
+				if (bestIdx == -1 || ranksBelow(population, bestIdx, i)) {
+					bestIdx = i;
 				}
 			}
+			slot.copyFrom(population[bestIdx]);
+			prevIdx = bestIdx;
+		}
+	}
+
+	/**
+	 * Whether individual i ranks below individual j, when ranking by fitness (descending) then
+	 * population order.
+	 */
+	private static boolean ranksBelow(Individual[] population, int i, int j) {
+		double iFitness = population[i].getFitness();
+		double jFitness = population[j].getFitness();
+		return iFitness < jFitness || (iFitness == jFitness && i > j);
+	}
+
+	/**
+	 * Overwrite the least fit individual of a population with a copy of another, if it is fitter.
+	 * 
+	 * @param population - the (evaluated) population
+	 * @param candidate  - the (evaluated) individual to copy in
+	 */
+	private void replaceLeastFitIfFitter(Individual[] population, Individual candidate) {
+		Individual leastFit = findLeastFit(population);
+		if (candidate.getFitness() > leastFit.getFitness()) {
+			leastFit.copyFrom(candidate);
 		}
 	}
 
@@ -316,11 +705,20 @@ public class GAUtils {
 	 *         generation
 	 */
 	public List<Double> getTableFitnesses(Individual[] population) {
-		double mean = Arrays.stream(population).mapToDouble(Individual::getFitness).average().getAsDouble();
-		double highest = findFittest(population).getFitness();
-		double lowest = findLeastFit(population).getFitness();
+		FitnessStatistics statistics = calculateStatistics(population);
+		return Arrays.asList(statistics.getMean(), statistics.getHighest(), statistics.getLowest());
+	}
 
-		return Arrays.asList(mean, highest, lowest);
+	/**
+	 * Evaluate a population (if necessary) then find its mean, highest and lowest fitnesses, in a
+	 * single pass.
+	 * 
+	 * @param population - the population to traverse
+	 * @return the fitness statistics of the population
+	 */
+	public FitnessStatistics calculateStatistics(Individual... population) {
+		evaluate(population);
+		return new FitnessStatistics(population);
 	}
 
 	/**
@@ -331,7 +729,13 @@ public class GAUtils {
 	 */
 	public Individual findFittest(Individual... population) {
 		evaluate(population);
-		return Arrays.stream(population).max(Comparator.comparing(Individual::getFitness)).get();
+		Individual fittest = population[0];
+		for (Individual individual : population) {
+			if (individual.getFitness() > fittest.getFitness()) {
+				fittest = individual;
+			}
+		}
+		return fittest;
 	}
 
 	/**
@@ -342,14 +746,66 @@ public class GAUtils {
 	 */
 	public Individual findLeastFit(Individual... population) {
 		evaluate(population);
-		return Arrays.stream(population).min(Comparator.comparing(Individual::getFitness)).get();
+		Individual leastFit = population[0];
+		for (Individual individual : population) {
+			if (individual.getFitness() < leastFit.getFitness()) {
+				leastFit = individual;
+			}
+		}
+		return leastFit;
 	}
 
 	/**
-	 * Update the fitness values of all individuals in a population.
+	 * Update the fitness values of all individuals in a population whose genes have changed since
+	 * they were last evaluated. Large populations are split across the evaluation thread pool;
+	 * small ones are evaluated sequentially, as the cost of forking would outweigh the gain.
 	 */
 	public void evaluate(Individual... population) {
-		Arrays.stream(population).forEach(Individual::calculateFitness);
+		if (population.length < Constants.PARALLEL_EVALUATION_THRESHOLD) {
+			evaluateSequentially(population);
+		} else {
+			evaluateInParallel(population);
+		}
+	}
+
+	/**
+	 * Update the fitness values of all (changed) individuals in a population, on the calling
+	 * thread.
+	 * 
+	 * @param population - the population to evaluate
+	 */
+	public void evaluateSequentially(Individual... population) {
+		for (Individual individual : population) {
+			if (individual.isDirty()) {
+				individual.calculateFitness();
+			}
+		}
+	}
+
+	/**
+	 * Update the fitness values of all (changed) individuals in a population, splitting it into
+	 * contiguous chunks across the evaluation thread pool. Each individual's fitness depends only on
+	 * its own genes and the read-only question pool, so no state is shared between threads and the
+	 * results are identical to those of sequential evaluation.
+	 * 
+	 * @param population - the population to evaluate
+	 */
+	public void evaluateInParallel(Individual... population) {
+		getEvaluationPool().invoke(new EvaluationTask(population, 0, population.length));
+	}
+
+	/**
+	 * Get the thread pool used for parallel evaluation, creating it on first use with
+	 * Constants.EVALUATION_THREADS threads (or using the common pool if this is not positive).
+	 * 
+	 * @return the evaluation thread pool
+	 */
+	private synchronized ForkJoinPool getEvaluationPool() {
+		if (evaluationPool == null) {
+			evaluationPool = Constants.EVALUATION_THREADS > 0 ? new ForkJoinPool(Constants.EVALUATION_THREADS)
+				: ForkJoinPool.commonPool();
+		}
+		return evaluationPool;
 	}
 
 	/**
@@ -370,4 +826,39 @@ public class GAUtils {
 	private static double map(double x, double r1start, double r1end, double r2start, double r2end) {
 		return (x - r1start) * (r2end - r2start) / (r1end - r1start) + r2start;
 	}
+
+	/**
+	 * Evaluates a range of a population, recursively halving it until each chunk is small enough to
+	 * evaluate sequentially.
+	 */
+	private static class EvaluationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private Individual[] population;
+
+		private int from;
+
+		private int to;
+
+		EvaluationTask(Individual[] population, int from, int to) {
+			this.population = population;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= Constants.EVALUATION_CHUNK_SIZE) {
+				for (int i = from; i < to; i++) {
+					if (population[i].isDirty()) {
+						population[i].calculateFitness();
+					}
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new EvaluationTask(population, from, mid), new EvaluationTask(population, mid, to));
+			}
+		}
+	}
 }
@@ -0,0 +1,241 @@
+package model.questionpapergeneration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import view.enums.GenerationStrategyType;
+import view.enums.LocalSearchMode;
+import view.enums.MigrationTopology;
+import view.enums.ReplacementStrategy;
+
+/**
+ * Represents the per-run settings of the question paper GA (as opposed to the paper's own
+ * parameters, such as its skill level and duration). Use GenerationParametersBuilder to create
+ * one; any setting not given takes its default from Constants. A population size or maximum number
+ * of generations of 0 is derived from the question pool when the GA is created.
+ *
+ * @author Sam Barba
+ */
+public class GenerationParameters {
+
+	private long seed;
+
+	private int popSize;
+
+	private int numIslands;
+
+	private int migrationInterval;
+
+	private int numMigrants;
+
+	private MigrationTopology migrationTopology;
+
+	private int numThreads;
+
+	private int maxGenerations;
+
+	private int stagnationWindow;
+
+	private double targetFitness;
+
+	private boolean stopOnExactMatch;
+
+	private long timeBudgetMillis;
+
+	private ReplacementStrategy replacementStrategy;
+
+	private int numElites;
+
+	private int steadyStateReplacements;
+
+	private int fitnessCacheSize;
+
+	private LocalSearchMode localSearchMode;
+
+	private int localSearchInterval;
+
+	private int numLocalSearchIndividuals;
+
+	private GenerationStrategyType strategyType;
+
+	private int annealingIterations;
+
+	private int numForms;
+
+	private double warmStartFraction;
+
+	private boolean useResultCache;
+
+	private GenerationProgressListener progressListener;
+
+	public GenerationParameters(long seed, int popSize, int numIslands, int migrationInterval, int numMigrants,
+		MigrationTopology migrationTopology, int numThreads, int maxGenerations, int stagnationWindow,
+		double targetFitness, boolean stopOnExactMatch, long timeBudgetMillis,
+		ReplacementStrategy replacementStrategy, int numElites, int steadyStateReplacements,
+		int fitnessCacheSize, LocalSearchMode localSearchMode, int localSearchInterval,
+		int numLocalSearchIndividuals, GenerationStrategyType strategyType, int annealingIterations,
+		int numForms, double warmStartFraction, boolean useResultCache,
+		GenerationProgressListener progressListener) {
+
+		this.seed = seed;
+		this.popSize = popSize;
+		this.numIslands = numIslands;
+		this.migrationInterval = migrationInterval;
+		this.numMigrants = numMigrants;
+		this.migrationTopology = migrationTopology;
+		this.numThreads = numThreads;
+		this.maxGenerations = maxGenerations;
+		this.stagnationWindow = stagnationWindow;
+		this.targetFitness = targetFitness;
+		this.stopOnExactMatch = stopOnExactMatch;
+		this.timeBudgetMillis = timeBudgetMillis;
+		this.replacementStrategy = replacementStrategy;
+		this.numElites = numElites;
+		this.steadyStateReplacements = steadyStateReplacements;
+		this.fitnessCacheSize = fitnessCacheSize;
+		this.localSearchMode = localSearchMode;
+		this.localSearchInterval = localSearchInterval;
+		this.numLocalSearchIndividuals = numLocalSearchIndividuals;
+		this.strategyType = strategyType;
+		this.annealingIterations = annealingIterations;
+		this.numForms = numForms;
+		this.warmStartFraction = warmStartFraction;
+		this.useResultCache = useResultCache;
+		this.progressListener = progressListener;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Get the population size, shared between the islands (0 means derived from the pool).
+	 */
+	public int getPopSize() {
+		return popSize;
+	}
+
+	public int getNumIslands() {
+		return numIslands;
+	}
+
+	public int getMigrationInterval() {
+		return migrationInterval;
+	}
+
+	public int getNumMigrants() {
+		return numMigrants;
+	}
+
+	public MigrationTopology getMigrationTopology() {
+		return migrationTopology;
+	}
+
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	/**
+	 * Get the maximum number of generations (0 means derived from the pool).
+	 */
+	public int getMaxGenerations() {
+		return maxGenerations;
+	}
+
+	public int getStagnationWindow() {
+		return stagnationWindow;
+	}
+
+	public double getTargetFitness() {
+		return targetFitness;
+	}
+
+	public boolean isStopOnExactMatch() {
+		return stopOnExactMatch;
+	}
+
+	public long getTimeBudgetMillis() {
+		return timeBudgetMillis;
+	}
+
+	public ReplacementStrategy getReplacementStrategy() {
+		return replacementStrategy;
+	}
+
+	public int getNumElites() {
+		return numElites;
+	}
+
+	public int getSteadyStateReplacements() {
+		return steadyStateReplacements;
+	}
+
+	public int getFitnessCacheSize() {
+		return fitnessCacheSize;
+	}
+
+	public LocalSearchMode getLocalSearchMode() {
+		return localSearchMode;
+	}
+
+	public int getLocalSearchInterval() {
+		return localSearchInterval;
+	}
+
+	public int getNumLocalSearchIndividuals() {
+		return numLocalSearchIndividuals;
+	}
+
+	public GenerationStrategyType getStrategyType() {
+		return strategyType;
+	}
+
+	public int getAnnealingIterations() {
+		return annealingIterations;
+	}
+
+	/**
+	 * Get the number of parallel forms (disjoint papers) evolved jointly by the run (1 means a
+	 * single paper).
+	 */
+	public int getNumForms() {
+		return numForms;
+	}
+
+	/**
+	 * Get the fraction of the GA's initial population seeded from stored papers and greedy
+	 * construction rather than at random (0 means a fully random population).
+	 */
+	public double getWarmStartFraction() {
+		return warmStartFraction;
+	}
+
+	/**
+	 * Get whether a repeat request is served from the result cache (see GenerationResultCache), or
+	 * always searched afresh.
+	 */
+	public boolean isUseResultCache() {
+		return useResultCache;
+	}
+
+	/**
+	 * Get the listener which receives the run's progress and can cancel it (or null for none).
+	 */
+	public GenerationProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	/**
+	 * Get the settings which can affect the outcome of a run, to key cached results by: all but the
+	 * number of threads (which never changes a result), whether to use the result cache, and the
+	 * progress listener.
+	 * 
+	 * @return the settings, as a list comparable by value
+	 */
+	public List<Object> getResultSettings() {
+		return Arrays.asList(seed, popSize, numIslands, migrationInterval, numMigrants, migrationTopology,
+			maxGenerations, stagnationWindow, targetFitness, stopOnExactMatch, timeBudgetMillis, replacementStrategy,
+			numElites, steadyStateReplacements, fitnessCacheSize, localSearchMode, localSearchInterval,
+			numLocalSearchIndividuals, strategyType, annealingIterations, numForms, warmStartFraction);
+	}
+}
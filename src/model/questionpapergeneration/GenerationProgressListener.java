@@ -0,0 +1,31 @@
+package model.questionpapergeneration;
+
+/**
+ * Receives the progress of a question paper generation run, and can cancel it. A run calls its
+ * listener on the thread running it (never on island threads), so a listener may hand progress on
+ * to a UI thread, but should not block.
+ *
+ * @author Sam Barba
+ */
+public interface GenerationProgressListener {
+
+	/**
+	 * Called after each generation (or epoch, with more than one island) of the GA, and
+	 * periodically during other strategies.
+	 * 
+	 * @param generationsCompleted - the number of generations (or iterations) completed so far
+	 * @param maxGenerations       - the most generations (or iterations) the run can take
+	 * @param bestFitness          - the best fitness found so far
+	 */
+	void progressed(int generationsCompleted, int maxGenerations, double bestFitness);
+
+	/**
+	 * Check whether the run should stop early. A cancelled run returns the best paper found so far,
+	 * with the CANCELLED termination reason.
+	 * 
+	 * @return whether or not the run has been cancelled
+	 */
+	default boolean isCancelled() {
+		return false;
+	}
+}
@@ -0,0 +1,100 @@
+package model.questionpapergeneration;
+
+import java.util.Collections;
+import java.util.List;
+
+import model.persisted.QuestionPaper;
+
+import view.enums.TerminationReason;
+
+/**
+ * Represents the outcome of a question paper generation run: the fittest individual found (and the
+ * paper, or parallel forms of it, made from it), along with how and when the run stopped.
+ *
+ * @author Sam Barba
+ */
+public class GenerationResult {
+
+	private Individual fittest;
+
+	private int generationsCompleted;
+
+	private TerminationReason terminationReason;
+
+	private List<QuestionPaper> questionPapers;
+
+	private long timeMillis;
+
+	private FitnessCache fitnessCache;
+
+	public GenerationResult(Individual fittest, int generationsCompleted, TerminationReason terminationReason,
+		FitnessCache fitnessCache) {
+
+		this.fittest = fittest;
+		this.generationsCompleted = generationsCompleted;
+		this.terminationReason = terminationReason;
+		this.fitnessCache = fitnessCache;
+	}
+
+	public Individual getFittest() {
+		return fittest;
+	}
+
+	public double getFinalFitness() {
+		return fittest.getFitness();
+	}
+
+	public int getGenerationsCompleted() {
+		return generationsCompleted;
+	}
+
+	public TerminationReason getTerminationReason() {
+		return terminationReason;
+	}
+
+	/**
+	 * Get the generated paper (the first form, if parallel forms were generated).
+	 */
+	public QuestionPaper getQuestionPaper() {
+		return questionPapers.get(0);
+	}
+
+	public void setQuestionPaper(QuestionPaper questionPaper) {
+		this.questionPapers = Collections.singletonList(questionPaper);
+	}
+
+	/**
+	 * Get the generated papers: one per parallel form, with no questions in common.
+	 */
+	public List<QuestionPaper> getQuestionPapers() {
+		return questionPapers;
+	}
+
+	public void setQuestionPapers(List<QuestionPaper> questionPapers) {
+		this.questionPapers = questionPapers;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	public void setTimeMillis(long timeMillis) {
+		this.timeMillis = timeMillis;
+	}
+
+	/**
+	 * Get the fitness cache of the run, for its hit rate and estimated time saved.
+	 * 
+	 * @return the fitness cache, or null if the run had none
+	 */
+	public FitnessCache getFitnessCache() {
+		return fitnessCache;
+	}
+
+	@Override
+	public String toString() {
+		return terminationReason + " after " + generationsCompleted + " generations (" + timeMillis
+			+ " ms), final fitness: " + getFinalFitness()
+			+ (fitnessCache == null ? "" : ", fitness cache: " + fitnessCache);
+	}
+}
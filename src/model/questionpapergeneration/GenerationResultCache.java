@@ -0,0 +1,257 @@
+package model.questionpapergeneration;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.enums.TerminationReason;
+import view.utils.Constants;
+
+/**
+ * This class is a singleton which caches the results of question paper generation runs, so that a
+ * repeat request is answered without searching again. A request repeats an earlier one if it has
+ * the same subject, skill level and minutes required, the same settings (see
+ * GenerationParameters.getResultSettings), the same questions in the same order, and the same
+ * stored papers to warm-start from. It holds the RESULT_CACHE_SIZE most recently used results,
+ * evicting the least recently used, and only the chosen question IDs of each, not the pool they
+ * were chosen from.
+ *
+ * The questions and stored papers are keyed by 64-bit fingerprints rather than copies, so two
+ * different lists sharing a fingerprint would be taken for a repeat, but this is improbable.
+ *
+ * Each subject's questions also have a version, which QuestionService bumps whenever a question
+ * of the subject is added or deleted. This drops the subject's results, and as the version is part
+ * of the key (taken when the request is made), a run which started on the old questions can never
+ * be returned for the new ones.
+ *
+ * @author Sam Barba
+ */
+public class GenerationResultCache {
+
+	private static final long FINGERPRINT_MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+	private static GenerationResultCache instance;
+
+	private Map<Key, CachedResult> results;
+
+	private Map<Integer, Integer> poolVersions = new HashMap<>();
+
+	private int hits;
+
+	private int misses;
+
+	private GenerationResultCache(int capacity) {
+		// access order, so the eldest entry is the least recently used
+		results = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	public synchronized static GenerationResultCache getInstance() {
+		if (instance == null) {
+			instance = new GenerationResultCache(Constants.RESULT_CACHE_SIZE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Make the key of a request, against the current version of the subject's questions.
+	 *
+	 * @param subjectId    - the subject ID of the paper
+	 * @param skillLevel   - the skill level of the paper
+	 * @param minsRequired - the minutes required for the paper
+	 * @param parameters   - the settings of the run
+	 * @param questions    - the possible questions to include in the paper
+	 * @param seedPapers   - the question IDs of each stored paper the run warm-starts from
+	 * @return the key
+	 */
+	public synchronized Key makeKey(int subjectId, BloomSkillLevel skillLevel, int minsRequired,
+		GenerationParameters parameters, List<Question> questions, List<List<Integer>> seedPapers) {
+
+		long questionsFingerprint = 1;
+		for (Question question : questions) {
+			questionsFingerprint = fingerprint(questionsFingerprint, question.getId());
+		}
+		long seedPapersFingerprint = 1;
+		for (List<Integer> questionIds : seedPapers) {
+			for (int questionId : questionIds) {
+				seedPapersFingerprint = fingerprint(seedPapersFingerprint, questionId);
+			}
+			// mark the end of each paper, so that papers splitting the same IDs differently differ
+			seedPapersFingerprint = fingerprint(seedPapersFingerprint, -questionIds.size());
+		}
+
+		return new Key(subjectId, skillLevel, minsRequired, parameters.getResultSettings(), questionsFingerprint,
+			seedPapersFingerprint, poolVersions.getOrDefault(subjectId, 0));
+	}
+
+	/**
+	 * Get the cached result of a request, marking it as the most recently used.
+	 *
+	 * @param key - the key of the request
+	 * @return the result, or empty if not cached
+	 */
+	public synchronized Optional<CachedResult> get(Key key) {
+		CachedResult result = results.get(key);
+		if (result == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return Optional.ofNullable(result);
+	}
+
+	/**
+	 * Cache the outcome of a request's run (the question IDs of its fittest individual), unless the
+	 * subject's questions have changed since its key was made.
+	 *
+	 * @param key    - the key of the request
+	 * @param result - the result of the request's run
+	 */
+	public synchronized void put(Key key, GenerationResult result) {
+		if (key.poolVersion != poolVersions.getOrDefault(key.subjectId, 0)) {
+			return;
+		}
+
+		Individual fittest = result.getFittest();
+		int[] questionIds = new int[fittest.getNumGenes()];
+		for (int i = 0; i < questionIds.length; i++) {
+			questionIds[i] = fittest.getPool().getId(fittest.getGene(i));
+		}
+		results.put(key, new CachedResult(questionIds, fittest.getNumForms(), result.getGenerationsCompleted(),
+			result.getTerminationReason()));
+	}
+
+	/**
+	 * Invalidate the cached results of a subject, as its questions have changed.
+	 *
+	 * @param subjectId - the ID of the subject
+	 */
+	public synchronized void invalidateSubject(int subjectId) {
+		poolVersions.merge(subjectId, 1, Integer::sum);
+		results.keySet().removeIf(key -> key.subjectId == subjectId);
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Extend an order-dependent fingerprint of a sequence of IDs by the next one.
+	 */
+	private static long fingerprint(long fingerprint, int id) {
+		return fingerprint * FINGERPRINT_MULTIPLIER + QuestionPool.mix64(id);
+	}
+
+	/**
+	 * The outcome of a cached run: the question IDs of its fittest individual (in chromosome order,
+	 * so form by form), and how the run went.
+	 */
+	public static final class CachedResult {
+
+		private final int[] questionIds;
+
+		private final int numForms;
+
+		private final int generationsCompleted;
+
+		private final TerminationReason terminationReason;
+
+		private CachedResult(int[] questionIds, int numForms, int generationsCompleted,
+			TerminationReason terminationReason) {
+
+			this.questionIds = questionIds;
+			this.numForms = numForms;
+			this.generationsCompleted = generationsCompleted;
+			this.terminationReason = terminationReason;
+		}
+
+		public int[] getQuestionIds() {
+			return questionIds;
+		}
+
+		public int getNumForms() {
+			return numForms;
+		}
+
+		public int getGenerationsCompleted() {
+			return generationsCompleted;
+		}
+
+		public TerminationReason getTerminationReason() {
+			return terminationReason;
+		}
+	}
+
+	/**
+	 * The key of a generation request.
+	 */
+	public static final class Key {
+
+		private final int subjectId;
+
+		private final BloomSkillLevel skillLevel;
+
+		private final int minsRequired;
+
+		private final List<Object> settings;
+
+		private final long questionsFingerprint;
+
+		private final long seedPapersFingerprint;
+
+		private final int poolVersion;
+
+		private Key(int subjectId, BloomSkillLevel skillLevel, int minsRequired, List<Object> settings,
+			long questionsFingerprint, long seedPapersFingerprint, int poolVersion) {
+
+			this.subjectId = subjectId;
+			this.skillLevel = skillLevel;
+			this.minsRequired = minsRequired;
+			this.settings = settings;
+			this.questionsFingerprint = questionsFingerprint;
+			this.seedPapersFingerprint = seedPapersFingerprint;
+			this.poolVersion = poolVersion;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return subjectId == other.subjectId && skillLevel == other.skillLevel
+				&& minsRequired == other.minsRequired && settings.equals(other.settings)
+				&& questionsFingerprint == other.questionsFingerprint
+				&& seedPapersFingerprint == other.seedPapersFingerprint && poolVersion == other.poolVersion;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(subjectId, skillLevel, minsRequired, settings, questionsFingerprint,
+				seedPapersFingerprint, poolVersion);
+		}
+	}
+}
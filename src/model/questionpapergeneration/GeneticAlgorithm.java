@@ -0,0 +1,405 @@
+package model.questionpapergeneration;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import view.enums.LocalSearchMode;
+import view.enums.MigrationTopology;
+import view.enums.TerminationReason;
+import view.utils.Constants;
+
+/**
+ * Runs the GA for one question paper. The population is divided into one or more islands which
+ * evolve independently (on separate threads, if there is more than one) with the GAUtils
+ * operators, exchanging their best individuals every few generations. With a single island, this
+ * is the standard panmictic GA.
+ * 
+ * Each island's random number stream is split from the run's seed in a fixed order, and migration
+ * happens on the calling thread between epochs, so the result depends only on the seed and
+ * parameters, never on the number of threads or their scheduling.
+ *
+ * @author Sam Barba
+ */
+public class GeneticAlgorithm {
+
+	private static final Logger LOGGER = Logger.getLogger(GeneticAlgorithm.class.getName());
+
+	private GAUtils gaUtils = GAUtils.getInstance();
+
+	private GenerationParameters parameters;
+
+	private Island[] islands;
+
+	private Individual[][] emigrants;
+
+	private SplittableRandom rand;
+
+	private FitnessCache fitnessCache;
+
+	private int maxGenerations;
+
+	// a copy of the fittest individual found so far, which a later population may no longer contain
+	private Individual bestSoFar;
+
+	/**
+	 * Create the islands of a GA run, with random initial populations (apart from any greedily
+	 * constructed warm start, see below).
+	 */
+	public GeneticAlgorithm(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters) {
+
+		this(pool, numGenes, paperSkillLvl, paperMinsRequired, parameters, Collections.emptyList());
+	}
+
+	/**
+	 * Create the islands of a GA run. The warm start fraction of each island's initial population is
+	 * seeded from previous papers (dealt out between the islands in turn, most similar first), then
+	 * greedily constructed; the rest is random.
+	 * 
+	 * @param pool              - the pool of possible questions to include in the paper
+	 * @param numGenes          - the number of questions to use (genes per chromosome, across all
+	 *                          parallel forms)
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
+	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 * @param parameters        - the settings of this run
+	 * @param seedPapers        - the question IDs of each previous paper to seed the run with
+	 */
+	public GeneticAlgorithm(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, List<List<Integer>> seedPapers) {
+
+		this.parameters = parameters;
+		this.rand = new SplittableRandom(parameters.getSeed());
+
+		// a population size or maximum number of generations not set explicitly is derived from the pool
+		int popSize = parameters.getPopSize() > 0 ? parameters.getPopSize()
+			: gaUtils.calculatePopulationSize(pool.size(), numGenes);
+		this.maxGenerations = parameters.getMaxGenerations() > 0 ? parameters.getMaxGenerations()
+			: gaUtils.calculateMaxGenerations(pool.size(), numGenes);
+
+		LOGGER.info("Population size: " + popSize + ", max. generations: " + maxGenerations);
+
+		if (parameters.getFitnessCacheSize() > 0) {
+			fitnessCache = new FitnessCache(parameters.getFitnessCacheSize());
+		}
+
+		int numIslands = parameters.getNumIslands();
+		int islandSize = Math.max(popSize / numIslands, 2 * parameters.getNumMigrants());
+
+		List<List<int[]>> islandSeeds = new ArrayList<>();
+		for (int i = 0; i < numIslands; i++) {
+			islandSeeds.add(new ArrayList<>());
+		}
+		List<int[]> seedChromosomes = toPoolIndexes(seedPapers, pool);
+		for (int s = 0; s < seedChromosomes.size(); s++) {
+			islandSeeds.get(s % numIslands).add(seedChromosomes.get(s));
+		}
+
+		islands = new Island[numIslands];
+		emigrants = new Individual[numIslands][];
+		for (int i = 0; i < numIslands; i++) {
+			islands[i] = new Island(islandSize, pool, numGenes, paperSkillLvl, paperMinsRequired, parameters,
+				fitnessCache, rand.split(), islandSeeds.get(i));
+			emigrants[i] = gaUtils.initialiseIndividualArray(parameters.getNumMigrants(), pool,
+				parameters.getNumForms(), numGenes / parameters.getNumForms(), paperSkillLvl, paperMinsRequired);
+		}
+		bestSoFar = new Individual(pool, parameters.getNumForms(), numGenes / parameters.getNumForms(), paperSkillLvl,
+			paperMinsRequired);
+	}
+
+	/**
+	 * Convert papers' question IDs to pool indexes, dropping any questions no longer in the pool (and
+	 * any papers left with none).
+	 */
+	private static List<int[]> toPoolIndexes(List<List<Integer>> papers, QuestionPool pool) {
+		if (papers.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Map<Integer, Integer> indexesById = new HashMap<>();
+		for (int i = 0; i < pool.size(); i++) {
+			indexesById.put(pool.getId(i), i);
+		}
+
+		List<int[]> chromosomes = new ArrayList<>();
+		for (List<Integer> questionIds : papers) {
+			int[] indexes = questionIds.stream()
+				.filter(indexesById::containsKey)
+				.mapToInt(indexesById::get)
+				.distinct()
+				.toArray();
+			if (indexes.length > 0) {
+				chromosomes.add(indexes);
+			}
+		}
+		return chromosomes;
+	}
+
+	/**
+	 * Run the GA until one of its stopping criteria is met: the maximum number of generations; no
+	 * improvement in best fitness for the stagnation window; the target fitness (or an exact match
+	 * of the paper parameters) being reached; or cancellation by the progress listener. Criteria are
+	 * checked (and progress reported) after every generation (or every epoch, with more than one
+	 * island). With FINAL local search, the fittest individuals of each island are then refined.
+	 * 
+	 * The result holds the fittest individual found in any generation, not just the last, so a run
+	 * never returns a worse paper than one it has already reported.
+	 * 
+	 * @return the result of the run, containing the fittest individual found
+	 */
+	public GenerationResult run() throws IOException {
+		return run(System.nanoTime());
+	}
+
+	/**
+	 * Run the GA as above, but if the generation parameters have a time budget, also stop once it
+	 * has expired (counting from startNanos), returning the best individual found so far. No
+	 * generation is started that the average generation time so far suggests would overrun the
+	 * budget, so the run finishes within it rather than one epoch after it.
+	 * 
+	 * @param startNanos - the System.nanoTime at which the budget started
+	 * @return the result of the run, containing the fittest individual found
+	 */
+	public GenerationResult run(long startNanos) throws IOException {
+		FileWriter writer;
+		if (Constants.TEST_MODE) {
+			writer = new FileWriter(Constants.GENETIC_ALGORITHM_TEST_RESULTS);
+			writer.append("Generation,Population mean fitness,Highest,Lowest\n");
+		}
+
+		GenerationProgressListener progressListener = parameters.getProgressListener();
+		boolean hasDeadline = parameters.getTimeBudgetMillis() > 0;
+		long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(parameters.getTimeBudgetMillis());
+		long loopStartNanos = System.nanoTime();
+
+		// islands only need to synchronise for migration, so a panmictic GA runs 1 generation per epoch
+		int epochLength = islands.length > 1 ? parameters.getMigrationInterval() : 1;
+		int numThreads = Math.min(islands.length, parameters.getNumThreads());
+		ExecutorService executor = numThreads > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+
+		bestSoFar.copyFrom(findFittest());
+		int lastImprovementGen = 0;
+		TerminationReason terminationReason = TerminationReason.MAX_GENERATIONS;
+		int g = 0;
+		int gensSinceMigration = 0;
+
+		try {
+			while (g < maxGenerations) {
+				int numGenerations = Math.min(epochLength - gensSinceMigration, maxGenerations - g);
+				if (hasDeadline) {
+					numGenerations = generationsWithinDeadline(numGenerations, g, loopStartNanos, deadlineNanos);
+					if (numGenerations == 0) {
+						terminationReason = TerminationReason.DEADLINE;
+						break;
+					}
+				}
+				evolveIslands(executor, numGenerations);
+				g += numGenerations;
+				gensSinceMigration += numGenerations;
+
+				if (Constants.TEST_MODE) {
+					List<Double> meanHiLo = getTableFitnesses();
+					writer.append(g + ",");
+					writer.append(Double.toString(meanHiLo.get(0)) + ",");
+					writer.append(Double.toString(meanHiLo.get(1)) + ",");
+					writer.append(Double.toString(meanHiLo.get(2)) + "\n");
+
+					LOGGER.info("Generation: " + g + " / " + maxGenerations + " mean fitness: " + meanHiLo.get(0)
+						+ " highest: " + meanHiLo.get(1) + " lowest: " + meanHiLo.get(2));
+				}
+
+				Individual fittest = findFittest();
+				boolean improved = fittest.getFitness() > bestSoFar.getFitness();
+				if (improved) {
+					bestSoFar.copyFrom(fittest);
+					lastImprovementGen = g;
+				}
+				if (progressListener != null) {
+					progressListener.progressed(g, maxGenerations, bestSoFar.getFitness());
+				}
+				if (bestSoFar.getFitness() >= parameters.getTargetFitness()
+					|| (parameters.isStopOnExactMatch() && bestSoFar.isExactMatch())) {
+
+					terminationReason = TerminationReason.TARGET_REACHED;
+					break;
+				}
+				if (!improved && parameters.getStagnationWindow() > 0
+					&& g - lastImprovementGen >= parameters.getStagnationWindow()) {
+
+					terminationReason = TerminationReason.STAGNATION;
+					break;
+				}
+				if (progressListener != null && progressListener.isCancelled()) {
+					terminationReason = TerminationReason.CANCELLED;
+					break;
+				}
+
+				if (gensSinceMigration == epochLength) {
+					if (islands.length > 1 && g < maxGenerations) {
+						migrate();
+					}
+					gensSinceMigration = 0;
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		// the final memetic stage is skipped if the time budget has already expired, or the run was cancelled
+		if (parameters.getLocalSearchMode() == LocalSearchMode.FINAL && terminationReason != TerminationReason.CANCELLED
+			&& (!hasDeadline || System.nanoTime() < deadlineNanos)) {
+
+			for (Island island : islands) {
+				island.refineFittest();
+			}
+			Individual fittest = findFittest();
+			if (fittest.getFitness() > bestSoFar.getFitness()) {
+				bestSoFar.copyFrom(fittest);
+			}
+		}
+
+		if (Constants.TEST_MODE) {
+			writer.flush();
+			writer.close();
+		}
+
+		return new GenerationResult(bestSoFar, g, terminationReason, fitnessCache);
+	}
+
+	/**
+	 * Find how many of the next generations can be run before the deadline, estimating the time of
+	 * a generation as the mean of those run so far. Until a generation has been run there is no
+	 * estimate, so only 1 is run (an island epoch can be many generations, which could overrun a
+	 * short budget by far).
+	 * 
+	 * @param numGenerations - the number of generations wanted
+	 * @param gensCompleted  - the number of generations run so far
+	 * @param loopStartNanos - the System.nanoTime at which the first generation started
+	 * @param deadlineNanos  - the System.nanoTime by which the run must finish
+	 * @return the number of generations to run (0 if the budget has expired)
+	 */
+	private int generationsWithinDeadline(int numGenerations, int gensCompleted, long loopStartNanos,
+		long deadlineNanos) {
+
+		long now = System.nanoTime();
+		long remainingNanos = deadlineNanos - now;
+		if (remainingNanos <= 0) {
+			return 0;
+		}
+		if (gensCompleted == 0) {
+			return 1;
+		}
+		long nanosPerGeneration = Math.max(1, (now - loopStartNanos) / gensCompleted);
+		return (int) Math.min(numGenerations, remainingNanos / nanosPerGeneration);
+	}
+
+	/**
+	 * Evolve every island for a number of generations, in parallel if an executor is given.
+	 * 
+	 * @param executor       - the executor to run the islands on, or null to run them on the calling
+	 *                       thread
+	 * @param numGenerations - the number of generations to run
+	 */
+	private void evolveIslands(ExecutorService executor, int numGenerations) {
+		if (executor == null) {
+			for (Island island : islands) {
+				island.evolve(numGenerations);
+			}
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (Island island : islands) {
+			tasks.add(() -> {
+				island.evolve(numGenerations);
+				return null;
+			});
+		}
+
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while evolving islands", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Island evolution failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Send the best individuals of each island to another, replacing its least fit. All emigrants
+	 * are copied out before any island receives immigrants, so the order islands are processed in
+	 * doesn't matter.
+	 */
+	private void migrate() {
+		for (int i = 0; i < islands.length; i++) {
+			islands[i].emigrate(emigrants[i]);
+		}
+
+		for (int i = 0; i < islands.length; i++) {
+			int destination;
+			if (parameters.getMigrationTopology() == MigrationTopology.RING) {
+				destination = (i + 1) % islands.length;
+			} else {
+				// any island other than the source
+				destination = (i + 1 + rand.nextInt(islands.length - 1)) % islands.length;
+			}
+			islands[destination].immigrate(emigrants[i]);
+		}
+	}
+
+	/**
+	 * Find the fittest individual across all islands.
+	 * 
+	 * @return the fittest individual
+	 */
+	private Individual findFittest() {
+		Individual fittest = gaUtils.findFittest(islands[0].getPopulation());
+		for (Island island : islands) {
+			Individual islandFittest = gaUtils.findFittest(island.getPopulation());
+			if (islandFittest.getFitness() > fittest.getFitness()) {
+				fittest = islandFittest;
+			}
+		}
+		return fittest;
+	}
+
+	/**
+	 * Calculate the mean, highest, and lowest fitnesses across all islands to write to CSV file.
+	 * 
+	 * @return list representing a CSV row, containing the mean, highest and lowest fitness
+	 */
+	private List<Double> getTableFitnesses() {
+		double total = 0;
+		double highest = -Double.MAX_VALUE;
+		double lowest = Double.MAX_VALUE;
+		int size = 0;
+
+		for (Island island : islands) {
+			FitnessStatistics statistics = gaUtils.calculateStatistics(island.getPopulation());
+			total += statistics.getMean() * island.getPopulation().length;
+			highest = Math.max(highest, statistics.getHighest());
+			lowest = Math.min(lowest, statistics.getLowest());
+			size += island.getPopulation().length;
+		}
+
+		return Arrays.asList(total / size, highest, lowest);
+	}
+}
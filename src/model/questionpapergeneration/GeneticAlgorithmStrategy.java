@@ -0,0 +1,37 @@
+package model.questionpapergeneration;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates a question paper with the (island-model) GA.
+ *
+ * @author Sam Barba
+ */
+public class GeneticAlgorithmStrategy implements PaperGenerationStrategy {
+
+	private List<List<Integer>> seedPapers;
+
+	public GeneticAlgorithmStrategy() {
+		this(Collections.emptyList());
+	}
+
+	/**
+	 * Create the strategy with previous papers to warm-start the GA's population from.
+	 * 
+	 * @param seedPapers - the question IDs of each previous paper, most similar first
+	 */
+	public GeneticAlgorithmStrategy(List<List<Integer>> seedPapers) {
+		this.seedPapers = seedPapers;
+	}
+
+	@Override
+	public GenerationResult generate(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, long startNanos) throws IOException {
+
+		GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm(pool, numGenes, paperSkillLvl, paperMinsRequired,
+			parameters, seedPapers);
+		return geneticAlgorithm.run(startNanos);
+	}
+}
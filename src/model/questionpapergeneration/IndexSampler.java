@@ -0,0 +1,70 @@
+package model.questionpapergeneration;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws distinct pool indexes at random (i.e. sampling without replacement), using a partial
+ * Fisher-Yates shuffle on a reusable scratch array. Each draw swaps a random not-yet-drawn index to
+ * the front of the array, so drawing k indexes costs O(k) and allocates nothing. The array is
+ * always a permutation of the pool indexes, so it never needs refilling between samples.
+ * 
+ * A sampler holds mutable state, so it must not be shared between threads.
+ *
+ * @author Sam Barba
+ */
+public class IndexSampler {
+
+	private int[] indexes;
+
+	private int numDrawn;
+
+	/**
+	 * Create a sampler over the indexes 0, 1, ..., poolSize - 1.
+	 * 
+	 * @param poolSize - the number of indexes to sample from
+	 */
+	public IndexSampler(int poolSize) {
+		indexes = new int[poolSize];
+		for (int i = 0; i < poolSize; i++) {
+			indexes[i] = i;
+		}
+	}
+
+	/**
+	 * Start a new sample, making every index available to be drawn again. This is O(1).
+	 */
+	public void reset() {
+		numDrawn = 0;
+	}
+
+	/**
+	 * Draw an index which has not yet been drawn since the last reset.
+	 * 
+	 * @param rand - the random number generator to use
+	 * @return the drawn index
+	 */
+	public int next(SplittableRandom rand) {
+		if (numDrawn == indexes.length) {
+			throw new IllegalStateException("All " + indexes.length + " indexes have already been drawn");
+		}
+
+		int j = numDrawn + rand.nextInt(indexes.length - numDrawn);
+		int drawn = indexes[j];
+		indexes[j] = indexes[numDrawn];
+		indexes[numDrawn++] = drawn;
+		return drawn;
+	}
+
+	/**
+	 * Fill an array with distinct random indexes, starting a new sample.
+	 * 
+	 * @param sample - the array to fill (its length is the sample size)
+	 * @param rand   - the random number generator to use
+	 */
+	public void sample(int[] sample, SplittableRandom rand) {
+		reset();
+		for (int i = 0; i < sample.length; i++) {
+			sample[i] = next(rand);
+		}
+	}
+}
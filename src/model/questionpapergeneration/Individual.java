@@ -1,68 +1,398 @@
 package model.questionpapergeneration;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
-import model.persisted.Question;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
- * Represents an individual question paper. The chromosome of an individual is a list of questions
- * (i.e. each question is a gene). Fitness is calculated by comparing the chromosome to: the
- * user-selected skill level of the paper; and the selected minutes required for the paper - all
- * done utilising a statistical method (see calculateFitness).
+ * Represents an individual question paper. The chromosome of an individual is an array of question
+ * pool indexes (i.e. each question is a gene), all referring to the same shared QuestionPool.
+ * Fitness is calculated by comparing the chromosome to: the user-selected skill level of the paper;
+ * and the selected minutes required for the paper - all done utilising a statistical method (see
+ * calculateFitness).
+ * 
+ * A chromosome never contains the same question twice, and a BitSet indexed by pool position
+ * records which questions it contains, so that membership checks are constant-time.
+ * 
+ * An individual can also hold several parallel forms of a paper: its chromosome is then split into
+ * consecutive blocks (forms) of equal length, each a paper in its own right, so forms never share a
+ * question.
  *
  * @author Sam Barba
  */
 public class Individual {
 
-	private List<Question> genes;
+	private int[] genes;
+
+	private BitSet geneSet;
+
+	private QuestionPool pool;
 
 	private double fitness;
 
+	/*
+	 * Whether the genes have changed since fitness was last calculated, so that unchanged
+	 * individuals are not needlessly re-evaluated.
+	 */
+	private boolean dirty;
+
 	private int paperSkillLvl;
 
 	private int paperMinsRequired;
 
-	public Individual(int paperSkillLvl, int paperMinsRequired) {
-		this.genes = new ArrayList<>();
+	/*
+	 * Running sums (and sums of squares) of the skill levels and minutes required of the genes,
+	 * kept up to date on every gene change so that fitness can be calculated in O(1).
+	 */
+	private int skillLvlSum;
+
+	private int skillLvlSqSum;
+
+	private int minsRequiredSum;
+
+	private int minsRequiredSqSum;
+
+	/*
+	 * Order-independent hash of the chromosome: the XOR of its questions' hash keys (see hashKey),
+	 * also kept up to date on every gene change.
+	 */
+	private long chromosomeHash;
+
+	private FitnessCache fitnessCache;
+
+	private int numForms;
+
+	private int formLength;
+
+	/*
+	 * With more than one form, the running sums of each form as well (null otherwise).
+	 */
+	private int[] formSkillLvlSums;
+
+	private int[] formSkillLvlSqSums;
+
+	private int[] formMinsRequiredSums;
+
+	private int[] formMinsRequiredSqSums;
+
+	/**
+	 * Create an individual whose chromosome initially holds the first numGenes questions of the
+	 * pool (so that it is valid, i.e. has no repeated genes, from the start).
+	 * 
+	 * @param pool              - the pool of questions which the genes index into
+	 * @param numGenes          - the number of questions (genes) in the chromosome
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
+	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 */
+	public Individual(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired) {
+		this(pool, 1, numGenes, paperSkillLvl, paperMinsRequired);
+	}
+
+	/**
+	 * Create an individual holding parallel forms of a paper, whose chromosome initially holds the
+	 * first numForms * formLength questions of the pool.
+	 * 
+	 * @param pool              - the pool of questions which the genes index into
+	 * @param numForms          - the number of forms (papers)
+	 * @param formLength        - the number of questions (genes) per form
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of each form
+	 * @param paperMinsRequired - the user-selected minutes required for each form
+	 */
+	public Individual(QuestionPool pool, int numForms, int formLength, int paperSkillLvl, int paperMinsRequired) {
+		int numGenes = numForms * formLength;
+		this.genes = new int[numGenes];
+		this.geneSet = new BitSet(pool.size());
+		this.pool = pool;
 		this.fitness = -Double.MAX_VALUE;
+		this.dirty = true;
 		this.paperSkillLvl = paperSkillLvl;
 		this.paperMinsRequired = paperMinsRequired;
+		this.numForms = numForms;
+		this.formLength = formLength;
+
+		if (numForms > 1) {
+			formSkillLvlSums = new int[numForms];
+			formSkillLvlSqSums = new int[numForms];
+			formMinsRequiredSums = new int[numForms];
+			formMinsRequiredSqSums = new int[numForms];
+		}
+
+		for (int i = 0; i < numGenes; i++) {
+			genes[i] = i;
+			geneSet.set(i);
+		}
+		recalculateSums();
 	}
 
-	public List<Question> getGenes() {
+	/**
+	 * Get the chromosome. This must be treated as read-only: genes should be changed via setGene,
+	 * setGenes, copyFrom or recombine, so that the running sums and gene set stay consistent.
+	 * 
+	 * @return the pool indexes making up the chromosome
+	 */
+	public int[] getGenes() {
 		return genes;
 	}
 
-	public void setGenes(List<Question> genes) {
-		this.genes.clear();
-		this.genes.addAll(genes);
+	/**
+	 * Overwrite this chromosome with a copy of another (of the same length, with no repeated genes).
+	 * 
+	 * @param genes - the pool indexes to copy
+	 */
+	public void setGenes(int[] genes) {
+		replaceGeneSet(genes);
+		System.arraycopy(genes, 0, this.genes, 0, this.genes.length);
+		recalculateSums();
+		dirty = true;
+	}
+
+	/**
+	 * Overwrite this individual with a copy of another's chromosome, running sums and fitness
+	 * (including whether it is up to date), so that nothing needs to be recalculated.
+	 * 
+	 * @param other - the individual to copy
+	 */
+	public void copyFrom(Individual other) {
+		replaceGeneSet(other.genes);
+		System.arraycopy(other.genes, 0, genes, 0, genes.length);
+		skillLvlSum = other.skillLvlSum;
+		skillLvlSqSum = other.skillLvlSqSum;
+		minsRequiredSum = other.minsRequiredSum;
+		minsRequiredSqSum = other.minsRequiredSqSum;
+		chromosomeHash = other.chromosomeHash;
+		fitness = other.fitness;
+		dirty = other.dirty;
+
+		if (numForms > 1) {
+			System.arraycopy(other.formSkillLvlSums, 0, formSkillLvlSums, 0, numForms);
+			System.arraycopy(other.formSkillLvlSqSums, 0, formSkillLvlSqSums, 0, numForms);
+			System.arraycopy(other.formMinsRequiredSums, 0, formMinsRequiredSums, 0, numForms);
+			System.arraycopy(other.formMinsRequiredSqSums, 0, formMinsRequiredSqSums, 0, numForms);
+		}
+	}
+
+	public int getGene(int i) {
+		return genes[i];
+	}
+
+	/**
+	 * Replace gene i, updating the running sums in O(1) by removing the old gene's values and
+	 * adding the new one's. The new gene must not already be elsewhere in the chromosome.
+	 * 
+	 * @param i         - the position of the gene to replace
+	 * @param poolIndex - the pool index of the new gene
+	 */
+	public void setGene(int i, int poolIndex) {
+		removeGene(i, genes[i]);
+		addGene(i, poolIndex);
+		genes[i] = poolIndex;
+		dirty = true;
+	}
+
+	/**
+	 * Overwrite this chromosome with the result of a modified uniform crossover: the first
+	 * numGenesFromP1 genes of p1, followed by the genes of p2 (in order) which are not among them,
+	 * until the chromosome is full. This individual's gene set is used for the duplicate check, and
+	 * the running sums are carried over from p1 and updated only for the genes after the first
+	 * numGenesFromP1, so nothing is allocated and nothing is recalculated from scratch.
+	 * 
+	 * @param p1             - the first parent
+	 * @param p2             - the second parent
+	 * @param numGenesFromP1 - the number of genes to take from the start of p1's chromosome
+	 */
+	public void recombine(Individual p1, Individual p2, int numGenesFromP1) {
+		copyFrom(p1);
+
+		// drop the genes after the first numGenesFromP1, so that the gene set holds only those kept
+		for (int i = numGenesFromP1; i < genes.length; i++) {
+			removeGene(i, genes[i]);
+		}
+
+		int numGenes = numGenesFromP1;
+		for (int p2gene : p2.genes) {
+			if (numGenes == genes.length) {
+				break;
+			}
+			// no repeated genes
+			if (!geneSet.get(p2gene)) {
+				addGene(numGenes, p2gene);
+				genes[numGenes++] = p2gene;
+			}
+		}
+		dirty = true;
+	}
+
+	public int getNumGenes() {
+		return genes.length;
+	}
+
+	public int getNumForms() {
+		return numForms;
+	}
+
+	public int getFormLength() {
+		return formLength;
+	}
+
+	public QuestionPool getPool() {
+		return pool;
 	}
 
 	public double getFitness() {
 		return fitness;
 	}
 
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	public long getChromosomeHash() {
+		return chromosomeHash;
+	}
+
 	/**
-	 * Calculate the fitness of an individual paper.
+	 * Share a fitness cache, which calculateFitness then looks chromosomes up in first (null for no
+	 * cache).
 	 * 
-	 * @return the fitness of the individual
+	 * @param fitnessCache - the cache of the run
+	 */
+	public void setFitnessCache(FitnessCache fitnessCache) {
+		this.fitnessCache = fitnessCache;
+	}
+
+	public int getTotalMinsRequired() {
+		return minsRequiredSum;
+	}
+
+	public double getMeanSkillLvl() {
+		return (double) skillLvlSum / genes.length;
+	}
+
+	/**
+	 * Check if this paper matches the user-selected parameters as closely as possible: its duration
+	 * is exactly the selected minutes required, and its mean skill level rounds to the selected one.
+	 * With parallel forms, every form must be an exact match.
+	 * 
+	 * @return whether or not the paper is an exact match
+	 */
+	public boolean isExactMatch() {
+		if (numForms == 1) {
+			return minsRequiredSum == paperMinsRequired && Math.abs(getMeanSkillLvl() - paperSkillLvl) < 0.5;
+		}
+		for (int f = 0; f < numForms; f++) {
+			if (formMinsRequiredSums[f] != paperMinsRequired
+				|| Math.abs((double) formSkillLvlSums[f] / formLength - paperSkillLvl) >= 0.5) {
+
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculate the fitness of an individual paper (via the fitness cache, if there is one).
 	 */
 	public void calculateFitness() {
-		List<Integer> skillLvls = genes.stream().map(q -> q.getSkillLevel().getIntVal()).collect(Collectors.toList());
-		List<Integer> minsRequired = genes.stream().map(Question::getMinutesRequired).collect(Collectors.toList());
+		fitness = fitnessCache == null ? computeFitness() : fitnessCache.getFitness(this);
+		dirty = false;
+	}
 
-		double meanSkillLvl = skillLvls.stream().mapToDouble(s -> s).average().getAsDouble();
-		double totalMinsRequired = minsRequired.stream().mapToDouble(t -> t).reduce(0, Double::sum);
+	/**
+	 * Compute the fitness of an individual paper, from the running sums of its genes' values.
+	 * 
+	 * @return the fitness
+	 */
+	double computeFitness() {
+		if (numForms > 1) {
+			return formsFitness(-1, 0, 0, 0, 0);
+		}
+		return fitnessFromSums(skillLvlSum, skillLvlSqSum, minsRequiredSum, minsRequiredSqSum);
+	}
+
+	/**
+	 * Compute what the fitness would be if gene i were replaced, in O(1) from the running sums
+	 * adjusted for the swap, without changing the individual (i.e. a delta evaluation for local
+	 * search). The new gene must not already be elsewhere in the chromosome.
+	 * 
+	 * @param i         - the position of the gene to replace
+	 * @param poolIndex - the pool index of the replacement gene
+	 * @return the fitness of the chromosome with the gene replaced
+	 */
+	public double fitnessWithGene(int i, int poolIndex) {
+		int oldSkillLvl = pool.getSkillLvl(genes[i]);
+		int oldMinsRequired = pool.getMinsRequired(genes[i]);
+		int newSkillLvl = pool.getSkillLvl(poolIndex);
+		int newMinsRequired = pool.getMinsRequired(poolIndex);
+		int skillLvlDelta = newSkillLvl - oldSkillLvl;
+		int skillLvlSqDelta = newSkillLvl * newSkillLvl - oldSkillLvl * oldSkillLvl;
+		int minsRequiredDelta = newMinsRequired - oldMinsRequired;
+		int minsRequiredSqDelta = newMinsRequired * newMinsRequired - oldMinsRequired * oldMinsRequired;
+
+		if (numForms > 1) {
+			return formsFitness(i / formLength, skillLvlDelta, skillLvlSqDelta, minsRequiredDelta,
+				minsRequiredSqDelta);
+		}
+		return fitnessFromSums(skillLvlSum + skillLvlDelta, skillLvlSqSum + skillLvlSqDelta,
+			minsRequiredSum + minsRequiredDelta, minsRequiredSqSum + minsRequiredSqDelta);
+	}
+
+	/**
+	 * Compute the fitness of parallel forms: the mean fitness of the forms (each as a paper in its
+	 * own right), minus the range of their total minutes and of their mean skill levels, so that
+	 * fitter individuals have forms which are both good papers and interchangeable. The sums of one
+	 * form can be adjusted by deltas, for delta evaluation.
+	 * 
+	 * @param changedForm - the form whose sums to adjust (-1 for none)
+	 * @return the fitness of the forms
+	 */
+	private double formsFitness(int changedForm, int skillLvlDelta, int skillLvlSqDelta, int minsRequiredDelta,
+		int minsRequiredSqDelta) {
+
+		double totalFitness = 0;
+		int lowestSkillLvlSum = Integer.MAX_VALUE;
+		int highestSkillLvlSum = Integer.MIN_VALUE;
+		int lowestMinsRequiredSum = Integer.MAX_VALUE;
+		int highestMinsRequiredSum = Integer.MIN_VALUE;
+
+		for (int f = 0; f < numForms; f++) {
+			int formSkillLvlSum = formSkillLvlSums[f];
+			int formSkillLvlSqSum = formSkillLvlSqSums[f];
+			int formMinsRequiredSum = formMinsRequiredSums[f];
+			int formMinsRequiredSqSum = formMinsRequiredSqSums[f];
+			if (f == changedForm) {
+				formSkillLvlSum += skillLvlDelta;
+				formSkillLvlSqSum += skillLvlSqDelta;
+				formMinsRequiredSum += minsRequiredDelta;
+				formMinsRequiredSqSum += minsRequiredSqDelta;
+			}
+
+			totalFitness += fitnessFromSums(formSkillLvlSum, formSkillLvlSqSum, formMinsRequiredSum,
+				formMinsRequiredSqSum);
+			lowestSkillLvlSum = Math.min(lowestSkillLvlSum, formSkillLvlSum);
+			highestSkillLvlSum = Math.max(highestSkillLvlSum, formSkillLvlSum);
+			lowestMinsRequiredSum = Math.min(lowestMinsRequiredSum, formMinsRequiredSum);
+			highestMinsRequiredSum = Math.max(highestMinsRequiredSum, formMinsRequiredSum);
+		}
+
+		return totalFitness / numForms - (double) (highestSkillLvlSum - lowestSkillLvlSum) / formLength
+			- (highestMinsRequiredSum - lowestMinsRequiredSum);
+	}
+
+	/**
+	 * Compute the fitness of a paper of this individual's (form) length, given the sums (and sums of
+	 * squares) of its genes' skill levels and minutes required.
+	 */
+	double fitnessFromSums(int skillLvlSum, int skillLvlSqSum, int minsRequiredSum, int minsRequiredSqSum) {
+		int n = formLength;
+
+		double meanSkillLvl = (double) skillLvlSum / n;
 
 		// calculate standard deviations for each attribute
-		double stDevSkillLvls = standardDeviation(skillLvls);
-		double stDevMinsRequired = standardDeviation(minsRequired);
+		double stDevSkillLvls = standardDeviation(n, skillLvlSum, skillLvlSqSum);
+		double stDevMinsRequired = standardDeviation(n, minsRequiredSum, minsRequiredSqSum);
 
 		// calculate distance between user-selected values and generated values
 		double skillLvlDist = Math.abs(paperSkillLvl - meanSkillLvl);
-		double minsRequiredDist = Math.abs(paperMinsRequired - totalMinsRequired);
+		double minsRequiredDist = Math.abs(paperMinsRequired - minsRequiredSum);
 
 		/*
 		 * 1. The higher the standard deviations calculated above, the better, because a good range
@@ -74,48 +404,138 @@ public class Individual {
 		 * 
 		 * Hence, the fitness can be calculated as follows:
 		 */
-		fitness = stDevSkillLvls + stDevMinsRequired - skillLvlDist - minsRequiredDist;
+		return stDevSkillLvls + stDevMinsRequired - skillLvlDist - minsRequiredDist;
 	}
 
 	/**
-	 * Calculate standard deviation for a list of values (e.g. list of skill levels) which will help
-	 * determine paper fitness. It is the square root of the variance (which itself is the mean of
-	 * the squared differences).
+	 * Calculate the (population) standard deviation of n values, given only their sum and sum of
+	 * squares. The variance is the mean of the squares minus the square of the mean, which over
+	 * integer values can be calculated exactly as (n * sumSq - sum^2) / n^2.
 	 * 
-	 * @param values - the list of values
+	 * @param n     - the number of values
+	 * @param sum   - the sum of the values
+	 * @param sumSq - the sum of the squares of the values
 	 * @return the standard deviation of the values
 	 */
-	private double standardDeviation(List<Integer> values) {
-		double variance = 0;
-		double mean = values.stream().mapToDouble(v -> v).average().getAsDouble();
+	private static double standardDeviation(int n, int sum, int sumSq) {
+		long numerator = (long) n * sumSq - (long) sum * sum;
+		return Math.sqrt((double) numerator / ((double) n * n));
+	}
+
+	/**
+	 * Recalculate the running sums from scratch, i.e. after the whole chromosome has been replaced.
+	 */
+	private void recalculateSums() {
+		skillLvlSum = 0;
+		skillLvlSqSum = 0;
+		minsRequiredSum = 0;
+		minsRequiredSqSum = 0;
+		chromosomeHash = 0;
+		if (numForms > 1) {
+			Arrays.fill(formSkillLvlSums, 0);
+			Arrays.fill(formSkillLvlSqSums, 0);
+			Arrays.fill(formMinsRequiredSums, 0);
+			Arrays.fill(formMinsRequiredSqSums, 0);
+		}
+
+		for (int i = 0; i < genes.length; i++) {
+			addToSums(i, genes[i]);
+		}
+	}
+
+	/**
+	 * Replace the gene set with that of another chromosome, touching only the bits of the two
+	 * chromosomes rather than the whole pool.
+	 * 
+	 * @param newGenes - the chromosome about to be copied into this one
+	 */
+	private void replaceGeneSet(int[] newGenes) {
+		for (int gene : genes) {
+			geneSet.clear(gene);
+		}
+		for (int gene : newGenes) {
+			geneSet.set(gene);
+		}
+	}
+
+	/**
+	 * Add the gene at position i's values to the running sums and gene set.
+	 */
+	private void addGene(int i, int poolIndex) {
+		geneSet.set(poolIndex);
+		addToSums(i, poolIndex);
+	}
+
+	/**
+	 * Remove the gene at position i's values from the running sums and gene set.
+	 */
+	private void removeGene(int i, int poolIndex) {
+		geneSet.clear(poolIndex);
+		removeFromSums(i, poolIndex);
+	}
+
+	private void addToSums(int i, int poolIndex) {
+		int skillLvl = pool.getSkillLvl(poolIndex);
+		int minsRequired = pool.getMinsRequired(poolIndex);
+		skillLvlSum += skillLvl;
+		skillLvlSqSum += skillLvl * skillLvl;
+		minsRequiredSum += minsRequired;
+		minsRequiredSqSum += minsRequired * minsRequired;
 
-		for (Integer v : values) {
-			variance += (v - mean) * (v - mean);
+		if (numForms > 1) {
+			int form = i / formLength;
+			formSkillLvlSums[form] += skillLvl;
+			formSkillLvlSqSums[form] += skillLvl * skillLvl;
+			formMinsRequiredSums[form] += minsRequired;
+			formMinsRequiredSqSums[form] += minsRequired * minsRequired;
 		}
-		variance /= values.size();
+		chromosomeHash ^= hashKey(i, poolIndex);
+	}
 
-		return Math.sqrt(variance);
+	private void removeFromSums(int i, int poolIndex) {
+		int skillLvl = pool.getSkillLvl(poolIndex);
+		int minsRequired = pool.getMinsRequired(poolIndex);
+		skillLvlSum -= skillLvl;
+		skillLvlSqSum -= skillLvl * skillLvl;
+		minsRequiredSum -= minsRequired;
+		minsRequiredSqSum -= minsRequired * minsRequired;
+
+		if (numForms > 1) {
+			int form = i / formLength;
+			formSkillLvlSums[form] -= skillLvl;
+			formSkillLvlSqSums[form] -= skillLvl * skillLvl;
+			formMinsRequiredSums[form] -= minsRequired;
+			formMinsRequiredSqSums[form] -= minsRequired * minsRequired;
+		}
+		chromosomeHash ^= hashKey(i, poolIndex);
+	}
+
+	/**
+	 * Get the hash key of a question at position i. With parallel forms, the key is rotated by the
+	 * form number, so the hash stays independent of order within a form but not across forms.
+	 */
+	private long hashKey(int i, int poolIndex) {
+		return numForms == 1 ? pool.getHashKey(poolIndex)
+			: Long.rotateLeft(pool.getHashKey(poolIndex), i / formLength);
 	}
 
 	/**
-	 * Check if chromosome contains a question (gene).
+	 * Check if chromosome contains a question (gene), in O(1) via the gene set.
 	 * 
-	 * @param gene - the question to check
+	 * @param poolIndex - the pool index of the question to check
 	 * @return whether or not the question exists in the gene
 	 */
-	public boolean containsGene(Question gene) {
-		return genes.stream().anyMatch(q -> q.getId() == gene.getId());
+	public boolean containsGene(int poolIndex) {
+		return geneSet.get(poolIndex);
 	}
 
 	/**
-	 * Find if the chromosome contains all possible questions (genes).
+	 * Find if the chromosome contains all possible questions (genes) of the pool. As genes are never
+	 * repeated, this is simply whether the chromosome is as long as the pool.
 	 * 
-	 * @param questions - the set of questions to check
-	 * @return if all questions in the set are also in the chromosome
+	 * @return if all questions in the pool are also in the chromosome
 	 */
-	public boolean containsAllPossibleGenes(List<Question> questions) {
-		List<Integer> geneIds = genes.stream().map(Question::getId).collect(Collectors.toList());
-		List<Integer> questionIds = questions.stream().map(Question::getId).collect(Collectors.toList());
-		return geneIds.containsAll(questionIds);
+	public boolean containsAllPossibleGenes() {
+		return genes.length >= pool.size();
 	}
 }
@@ -0,0 +1,215 @@
+package model.questionpapergeneration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import view.enums.LocalSearchMode;
+import view.enums.ReplacementStrategy;
+
+/**
+ * Represents one sub-population of the island-model GA. Each island has its own offspring set,
+ * crossover slots, sampler and random number stream, so that islands can be evolved on different
+ * threads without sharing any mutable state (the question pool is read-only). A panmictic GA is
+ * simply a single island.
+ * 
+ * How the population is replaced each generation (generational, elitist or steady-state) is set per
+ * run, and the buffers each strategy needs are allocated up front, so evolving allocates nothing.
+ *
+ * @author Sam Barba
+ */
+public class Island {
+
+	private GAUtils gaUtils = GAUtils.getInstance();
+
+	private Individual[] population;
+
+	private Individual[] offspring;
+
+	private Individual[] children;
+
+	private Individual[] elites;
+
+	private LeastFitHeap leastFitHeap;
+
+	private ReplacementStrategy replacementStrategy;
+
+	private LocalSearchMode localSearchMode;
+
+	private int localSearchInterval;
+
+	private int numLocalSearchIndividuals;
+
+	private int generationsEvolved;
+
+	private IndexSampler sampler;
+
+	private SplittableRandom rand;
+
+	/**
+	 * Create an island with a random, evaluated initial population, warm-started only by greedy
+	 * construction (see below).
+	 */
+	public Island(int size, QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, FitnessCache fitnessCache, SplittableRandom rand) {
+
+		this(size, pool, numGenes, paperSkillLvl, paperMinsRequired, parameters, fitnessCache, rand,
+			Collections.emptyList());
+	}
+
+	/**
+	 * Create an island with an evaluated initial population, which is random apart from the warm
+	 * start fraction of it: seeded from previous papers first, then greedily constructed (see
+	 * GAUtils.warmStartPopulation).
+	 * 
+	 * @param size              - the number of individuals in the island's population
+	 * @param pool              - the pool of questions which the individuals' genes index into
+	 * @param numGenes          - the number of questions to use (genes per chromosome, across all
+	 *                          forms)
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
+	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 * @param parameters        - the settings of the run, such as the replacement strategy
+	 * @param fitnessCache      - the fitness cache of the run, shared between islands (or null)
+	 * @param rand              - the island's own random number stream
+	 * @param seedChromosomes   - the pool indexes of the questions of each previous paper to seed
+	 *                          the population with
+	 */
+	public Island(int size, QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, FitnessCache fitnessCache, SplittableRandom rand,
+		List<int[]> seedChromosomes) {
+
+		this.replacementStrategy = parameters.getReplacementStrategy();
+		this.localSearchMode = parameters.getLocalSearchMode();
+		this.localSearchInterval = Math.max(1, parameters.getLocalSearchInterval());
+		this.numLocalSearchIndividuals = Math.min(parameters.getNumLocalSearchIndividuals(), size);
+		// with parallel forms, the chromosome holds every form
+		int numForms = parameters.getNumForms();
+		int formLength = numGenes / numForms;
+		this.population = gaUtils.initialiseIndividualArray(size, pool, numForms, formLength, paperSkillLvl,
+			paperMinsRequired);
+
+		if (replacementStrategy == ReplacementStrategy.STEADY_STATE) {
+			// children are bred straight from the population, so no offspring set is needed
+			int numChildren = Math.max(1, parameters.getSteadyStateReplacements());
+			this.children = gaUtils.initialiseIndividualArray(numChildren, pool, numForms, formLength,
+				paperSkillLvl, paperMinsRequired);
+		} else {
+			this.offspring = gaUtils.initialiseIndividualArray(size, pool, numForms, formLength, paperSkillLvl,
+				paperMinsRequired);
+			this.children = gaUtils.initialiseIndividualArray(2, pool, numForms, formLength, paperSkillLvl,
+				paperMinsRequired);
+		}
+		if (replacementStrategy == ReplacementStrategy.ELITIST) {
+			int numElites = Math.min(parameters.getNumElites(), size);
+			this.elites = gaUtils.initialiseIndividualArray(numElites, pool, numForms, formLength, paperSkillLvl,
+				paperMinsRequired);
+		}
+		this.sampler = new IndexSampler(pool.size());
+		this.rand = rand;
+
+		if (fitnessCache != null) {
+			// only these are ever evaluated; elites and migrants copy their fitness
+			for (Individual[] individuals : new Individual[][] { population, offspring, children }) {
+				if (individuals != null) {
+					for (Individual individual : individuals) {
+						individual.setFitnessCache(fitnessCache);
+					}
+				}
+			}
+		}
+
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+		int numSeeded = (int) Math.round(size * parameters.getWarmStartFraction());
+		if (numSeeded > 0) {
+			gaUtils.warmStartPopulation(population, numSeeded, seedChromosomes, sampler, rand);
+		}
+		gaUtils.evaluate(population);
+
+		if (replacementStrategy == ReplacementStrategy.STEADY_STATE) {
+			this.leastFitHeap = new LeastFitHeap(population);
+		}
+	}
+
+	public Individual[] getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Evolve the island's population independently for a number of generations.
+	 * 
+	 * @param numGenerations - the number of generations to run
+	 */
+	public void evolve(int numGenerations) {
+		for (int g = 0; g < numGenerations; g++) {
+			switch (replacementStrategy) {
+				case ELITIST:
+					gaUtils.runElitistGeneration(population, offspring, children, elites, sampler, rand);
+					break;
+				case STEADY_STATE:
+					gaUtils.runSteadyStateGeneration(population, leastFitHeap, children, sampler, rand);
+					break;
+				default: // generational
+					gaUtils.runGeneration(population, offspring, children, sampler, rand);
+			}
+
+			generationsEvolved++;
+			if (localSearchMode == LocalSearchMode.PERIODIC && generationsEvolved % localSearchInterval == 0) {
+				refineFittest();
+			}
+		}
+	}
+
+	/**
+	 * Refine the island's fittest individuals in place with swap local search (the memetic stage).
+	 */
+	public void refineFittest() {
+		Individual[] ranked = rankByFitness();
+		for (int i = 0; i < numLocalSearchIndividuals; i++) {
+			gaUtils.localSearch(ranked[ranked.length - 1 - i], rand);
+		}
+		if (leastFitHeap != null) {
+			leastFitHeap.rebuild();
+		}
+	}
+
+	/**
+	 * Copy the island's fittest individuals into emigrant slots, to be sent to another island.
+	 * 
+	 * @param emigrants - the slots to copy the fittest individuals into (one per migrant)
+	 */
+	public void emigrate(Individual[] emigrants) {
+		Individual[] ranked = rankByFitness();
+		for (int i = 0; i < emigrants.length; i++) {
+			emigrants[i].copyFrom(ranked[ranked.length - 1 - i]);
+		}
+	}
+
+	/**
+	 * Replace the island's least fit individuals with immigrants from another island.
+	 * 
+	 * @param immigrants - the individuals to copy in
+	 */
+	public void immigrate(Individual[] immigrants) {
+		Individual[] ranked = rankByFitness();
+		for (int i = 0; i < immigrants.length; i++) {
+			ranked[i].copyFrom(immigrants[i]);
+		}
+		if (leastFitHeap != null) {
+			leastFitHeap.rebuild();
+		}
+	}
+
+	/**
+	 * Get the population sorted in ascending order of fitness (ties kept in population order, so
+	 * that migration is deterministic).
+	 * 
+	 * @return the sorted population
+	 */
+	private Individual[] rankByFitness() {
+		Individual[] ranked = population.clone();
+		Arrays.sort(ranked, Comparator.comparingDouble(Individual::getFitness));
+		return ranked;
+	}
+}
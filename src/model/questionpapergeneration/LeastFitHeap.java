@@ -0,0 +1,87 @@
+package model.questionpapergeneration;
+
+/**
+ * A binary min-heap of population indexes ordered by fitness, so that steady-state replacement can
+ * find the least fit individual in O(1) and restore the order in O(log pop) after replacing it,
+ * instead of scanning the whole population for every child. The heap does not observe the
+ * population: it must be rebuilt after anything other than replaceLeastFit changes a fitness (e.g.
+ * migration).
+ *
+ * @author Sam Barba
+ */
+public class LeastFitHeap {
+
+	private Individual[] population;
+
+	private int[] heap;
+
+	public LeastFitHeap(Individual[] population) {
+		this.population = population;
+		this.heap = new int[population.length];
+		rebuild();
+	}
+
+	/**
+	 * Rebuild the heap from the current population fitnesses, in O(pop).
+	 */
+	public void rebuild() {
+		for (int i = 0; i < heap.length; i++) {
+			heap[i] = i;
+		}
+		for (int i = heap.length / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	public Individual peekLeastFit() {
+		return population[heap[0]];
+	}
+
+	/**
+	 * Overwrite the least fit individual with a copy of another, if it is fitter, then restore the
+	 * heap order.
+	 * 
+	 * @param candidate - the (evaluated) individual to copy in
+	 * @return whether or not the candidate replaced the least fit individual
+	 */
+	public boolean replaceLeastFit(Individual candidate) {
+		Individual leastFit = peekLeastFit();
+		if (candidate.getFitness() <= leastFit.getFitness()) {
+			return false;
+		}
+		leastFit.copyFrom(candidate);
+		siftDown(0);
+		return true;
+	}
+
+	private void siftDown(int i) {
+		int n = heap.length;
+		int idx = heap[i];
+
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= n) {
+				break;
+			}
+			if (child + 1 < n && isLessFit(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!isLessFit(heap[child], idx)) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = idx;
+	}
+
+	/**
+	 * Whether individual i is less fit than individual j (ties broken by population order, so that
+	 * replacement is deterministic).
+	 */
+	private boolean isLessFit(int i, int j) {
+		double iFitness = population[i].getFitness();
+		double jFitness = population[j].getFitness();
+		return iFitness < jFitness || (iFitness == jFitness && i < j);
+	}
+}
@@ -0,0 +1,27 @@
+package model.questionpapergeneration;
+
+import java.io.IOException;
+
+/**
+ * A search algorithm which generates a question paper: given a pool of questions and the
+ * user-selected skill level and minutes required, it finds a chromosome (set of question pool
+ * indexes) of a given length with as high a fitness as it can (see Individual.calculateFitness).
+ *
+ * @author Sam Barba
+ */
+public interface PaperGenerationStrategy {
+
+	/**
+	 * Search for the fittest paper.
+	 * 
+	 * @param pool              - the pool of possible questions to include in the paper
+	 * @param numGenes          - the number of questions to use (genes per chromosome)
+	 * @param paperSkillLvl     - the user-selected (mean) skill level of the paper
+	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 * @param parameters        - the settings of the run, such as its seed and stopping criteria
+	 * @param startNanos        - the System.nanoTime at which any time budget started
+	 * @return the result of the search, containing the fittest individual found
+	 */
+	GenerationResult generate(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, long startNanos) throws IOException;
+}
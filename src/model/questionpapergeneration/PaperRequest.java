@@ -0,0 +1,67 @@
+package model.questionpapergeneration;
+
+import view.enums.BloomSkillLevel;
+
+/**
+ * Represents one paper (or set of parallel forms) to generate in a batch: the paper's own
+ * parameters, such as its subject and duration, along with the generation parameters of its run.
+ * Use PaperRequestBuilder to create one.
+ *
+ * @author Sam Barba
+ */
+public class PaperRequest {
+
+	private int subjectId;
+
+	private String title;
+
+	private String courseTitle;
+
+	private String courseCode;
+
+	private BloomSkillLevel skillLevel;
+
+	private int minsRequired;
+
+	private GenerationParameters parameters;
+
+	public PaperRequest(int subjectId, String title, String courseTitle, String courseCode,
+		BloomSkillLevel skillLevel, int minsRequired, GenerationParameters parameters) {
+
+		this.subjectId = subjectId;
+		this.title = title;
+		this.courseTitle = courseTitle;
+		this.courseCode = courseCode;
+		this.skillLevel = skillLevel;
+		this.minsRequired = minsRequired;
+		this.parameters = parameters;
+	}
+
+	public int getSubjectId() {
+		return subjectId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public String getCourseTitle() {
+		return courseTitle;
+	}
+
+	public String getCourseCode() {
+		return courseCode;
+	}
+
+	public BloomSkillLevel getSkillLevel() {
+		return skillLevel;
+	}
+
+	public int getMinsRequired() {
+		return minsRequired;
+	}
+
+	public GenerationParameters getParameters() {
+		return parameters;
+	}
+}
@@ -1,23 +1,36 @@
 package model.questionpapergeneration;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import model.builders.GenerationParametersBuilder;
 import model.builders.QuestionPaperBuilder;
 import model.persisted.Question;
 import model.persisted.QuestionPaper;
 import model.service.QuestionPaperService;
+import model.service.QuestionService;
 
 import view.enums.BloomSkillLevel;
+import view.enums.GenerationStrategyType;
+import view.enums.TerminationReason;
 import view.utils.Constants;
 
 /**
- * Generates a question paper with specified parameters using a GA.
+ * Generates a question paper with specified parameters, using the search algorithm (GA by default)
+ * selected in the generation parameters.
  *
  * @author Sam Barba
  */
@@ -38,8 +51,8 @@ public class QuestionPaperGenerator {
 	}
 
 	/**
-	 * Generate a question paper with the GA, then create the persisted object with the
-	 * user-specified parameters.
+	 * Generate a question paper with the GA, using the default generation parameters (and a random
+	 * seed), then create the persisted object with the user-specified parameters.
 	 * 
 	 * @param questions    - the list of possible questions to include in the paper
 	 * @param subjectId    - the subject ID of the paper
@@ -53,76 +66,440 @@ public class QuestionPaperGenerator {
 	public Optional<QuestionPaper> generatePaper(List<Question> questions, int subjectId, String title,
 		String courseTitle, String courseCode, BloomSkillLevel skillLevel, int minsRequired) throws IOException {
 
-		LOGGER.info("Generating question paper...");
+		return generatePaper(questions, subjectId, title, courseTitle, courseCode, skillLevel, minsRequired,
+			new GenerationParametersBuilder().build());
+	}
+
+	/**
+	 * Generate a question paper with the GA, then create the persisted object with the
+	 * user-specified parameters. All randomness in the GA is derived from the seed in the generation
+	 * parameters, so the same seed, parameters and questions always produce the same paper.
+	 * 
+	 * @param questions    - the list of possible questions to include in the paper
+	 * @param subjectId    - the subject ID of the paper
+	 * @param title        - the title of the paper
+	 * @param courseTitle  - the course title of the paper
+	 * @param courseCode   - the course code of the paper
+	 * @param skillLevel   - the mean skill level of the paper
+	 * @param minsRequired - the approximate minutes required the user wants for the paper
+	 * @param parameters   - the settings of the run, such as its seed and stopping criteria
+	 * @return a generated question paper
+	 */
+	public Optional<QuestionPaper> generatePaper(List<Question> questions, int subjectId, String title,
+		String courseTitle, String courseCode, BloomSkillLevel skillLevel, int minsRequired,
+		GenerationParameters parameters) throws IOException {
+
+		GenerationResult result = generate(questions, subjectId, title, courseTitle, courseCode, skillLevel,
+			minsRequired, parameters);
+		return Optional.of(result.getQuestionPaper());
+	}
+
+	/**
+	 * Generate parallel forms of a question paper: numForms equivalent papers with no questions in
+	 * common, searched for jointly in one run (see Individual), using the default generation
+	 * parameters otherwise. The forms are titled by letter (e.g. "Title Form A"), and are persisted
+	 * together, as generatePapers does.
+	 * 
+	 * @param questions    - the list of possible questions to include in the papers
+	 * @param numForms     - the number of forms to generate
+	 * @param subjectId    - the subject ID of the papers
+	 * @param title        - the title of the papers
+	 * @param courseTitle  - the course title of the papers
+	 * @param courseCode   - the course code of the papers
+	 * @param skillLevel   - the mean skill level of each paper
+	 * @param minsRequired - the approximate minutes required the user wants for each paper
+	 * @return the generated (and persisted) forms
+	 */
+	public List<QuestionPaper> generateParallelForms(List<Question> questions, int numForms, int subjectId,
+		String title, String courseTitle, String courseCode, BloomSkillLevel skillLevel, int minsRequired)
+		throws IOException {
+
+		GenerationResult result = generate(questions, subjectId, title, courseTitle, courseCode, skillLevel,
+			minsRequired, new GenerationParametersBuilder().withNumForms(numForms).build());
+		List<QuestionPaper> papers = result.getQuestionPapers();
+		QuestionPaperService.getInstance().addQuestionPapers(papers);
+		return papers;
+	}
 
-		FileWriter writer;
-		if (Constants.TEST_MODE) {
-			writer = new FileWriter(Constants.GENETIC_ALGORITHM_TEST_RESULTS);
-			writer.append("Generation,Population mean fitness,Highest,Lowest\n");
+	/**
+	 * Generate a question paper with the selected strategy, returning the paper along with how the
+	 * run went (why it stopped, how many generations it took, and the final fitness). If the
+	 * parameters have a time budget, the best paper found when it expires is returned. If the
+	 * parameters have more than one form, that many disjoint papers are generated (with fewer
+	 * questions each if the pool can't otherwise supply them all). Questions which can't improve
+	 * the paper are removed from the pool before searching (see QuestionPoolFilter). If the
+	 * parameters have a warm start fraction, a GA run seeds part of its initial population from
+	 * stored papers similar to the one requested (see findSimilarPapers).
+	 * 
+	 * Unless the parameters opt out, a request repeating an earlier one reuses its result (see
+	 * GenerationResultCache). A warm-started GA run depends on the stored papers too, so it is only
+	 * repeated while they are unchanged. Runs cut short by their time budget or cancellation are not
+	 * cached, as a repeat may be allowed to finish.
+	 * 
+	 * @param questions    - the list of possible questions to include in the paper
+	 * @param subjectId    - the subject ID of the paper
+	 * @param title        - the title of the paper
+	 * @param courseTitle  - the course title of the paper
+	 * @param courseCode   - the course code of the paper
+	 * @param skillLevel   - the mean skill level of the paper
+	 * @param minsRequired - the approximate minutes required the user wants for the paper
+	 * @param parameters   - the settings of the run, such as its seed and stopping criteria
+	 * @return the result of the run, including the generated question paper
+	 */
+	public GenerationResult generate(List<Question> questions, int subjectId, String title, String courseTitle,
+		String courseCode, BloomSkillLevel skillLevel, int minsRequired, GenerationParameters parameters)
+		throws IOException {
+
+		long startTime = System.currentTimeMillis();
+		// any time budget covers preparing the pool as well as the GA itself
+		long startNanos = System.nanoTime();
+
+		int firstId = QuestionPaperService.getInstance().getNewQuestionPaperId();
+		List<QuestionPaper> storedPapers = parameters.getWarmStartFraction() > 0
+			? QuestionPaperService.getInstance().getAllQuestionPapers()
+			: Collections.emptyList();
+
+		GenerationResultCache resultCache = GenerationResultCache.getInstance();
+		GenerationResultCache.Key cacheKey = null;
+		if (parameters.isUseResultCache()) {
+			// only the GA warm-starts, and only for a single paper (AUTO may choose it)
+			boolean usesSeedPapers = parameters.getNumForms() == 1
+				&& (parameters.getStrategyType() == GenerationStrategyType.GENETIC_ALGORITHM
+					|| parameters.getStrategyType() == GenerationStrategyType.AUTO);
+			List<List<Integer>> seedPapers = usesSeedPapers
+				? findSimilarPapers(storedPapers, subjectId, skillLevel, minsRequired)
+				: Collections.emptyList();
+			cacheKey = resultCache.makeKey(subjectId, skillLevel, minsRequired, parameters, questions, seedPapers);
+
+			Optional<GenerationResultCache.CachedResult> cachedResult = resultCache.get(cacheKey);
+			if (cachedResult.isPresent()) {
+				GenerationResult result = makeCachedResult(cachedResult.get(), questions, skillLevel, minsRequired);
+				makeQuestionPapers(result, firstId, subjectId, title, courseTitle, courseCode, skillLevel);
+				result.setTimeMillis(System.currentTimeMillis() - startTime);
+
+				LOGGER.info("Question paper served from the result cache: " + result);
+				return result;
+			}
 		}
 
-		GAUtils gaUtils = GAUtils.getInstance();
+		// precompute the pool's primitive attribute arrays once for the whole run
+		QuestionPool pool = new QuestionPool(questions);
+
+		GenerationResult result = generate(pool, firstId, storedPapers, subjectId, title, courseTitle, courseCode,
+			skillLevel, minsRequired, parameters, startTime, startNanos);
+
+		if (parameters.isUseResultCache() && result.getTerminationReason() != TerminationReason.DEADLINE
+			&& result.getTerminationReason() != TerminationReason.CANCELLED) {
+
+			resultCache.put(cacheKey, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Rebuild the result of a cached run from its chosen questions. The fittest individual is made
+	 * over a pool of just those questions, as fitness depends on nothing else.
+	 * 
+	 * @param cachedResult - the cached outcome of the run
+	 * @param questions    - the questions of the request, which include all those chosen
+	 * @param skillLevel   - the skill level of the paper
+	 * @param minsRequired - the minutes required for the paper
+	 * @return the result of the run, without its papers
+	 */
+	private GenerationResult makeCachedResult(GenerationResultCache.CachedResult cachedResult,
+		List<Question> questions, BloomSkillLevel skillLevel, int minsRequired) {
+
+		Map<Integer, Question> questionsById = questions.stream()
+			.collect(Collectors.toMap(Question::getId, question -> question, (q1, q2) -> q1));
+		List<Question> chosenQuestions = Arrays.stream(cachedResult.getQuestionIds())
+			.mapToObj(questionsById::get)
+			.collect(Collectors.toList());
+
+		// the individual's initial chromosome is the whole pool, in order
+		int numForms = cachedResult.getNumForms();
+		Individual fittest = new Individual(new QuestionPool(chosenQuestions), numForms,
+			chosenQuestions.size() / numForms, skillLevel.getIntVal(), minsRequired);
+		fittest.calculateFitness();
+
+		return new GenerationResult(fittest, cachedResult.getGenerationsCompleted(),
+			cachedResult.getTerminationReason(), null);
+	}
+
+	/**
+	 * Generate a batch of papers concurrently, then persist them all with a single write. The
+	 * questions are read once, each requested subject's pool is built once (however many requests
+	 * share it), as are the stored papers to warm-start from, and at most BATCH_GENERATION_THREADS
+	 * requests run at a time. Each run is otherwise as in generate, with any time budget starting
+	 * when the run does, and IDs are assigned in request order.
+	 * 
+	 * @param requests - the papers to generate
+	 * @return the results of the runs, in request order
+	 */
+	public List<GenerationResult> generatePapers(List<PaperRequest> requests) throws IOException {
+		if (requests.isEmpty()) {
+			return Collections.emptyList();
+		}
 
 		long startTime = System.currentTimeMillis();
 
-		int numGenes = gaUtils.calculateChromosomeLength(questions, skillLevel.getIntVal(), minsRequired);
+		Map<Integer, List<Question>> questionsBySubjectId = QuestionService.getInstance().getAllQuestions()
+			.stream()
+			.collect(Collectors.groupingBy(Question::getSubjectId));
+		Map<Integer, QuestionPool> poolsBySubjectId = new HashMap<>();
+		for (PaperRequest request : requests) {
+			int subjectId = request.getSubjectId();
+			List<Question> questions = questionsBySubjectId.getOrDefault(subjectId, Collections.emptyList());
+			if (questions.size() < Constants.MIN_QUESTIONS_PER_PAPER) {
+				throw new IllegalArgumentException("Insufficient questions of subject with ID " + subjectId);
+			}
+			poolsBySubjectId.computeIfAbsent(subjectId, k -> new QuestionPool(questions));
+		}
+
+		List<QuestionPaper> storedPapers = QuestionPaperService.getInstance().getAllQuestionPapers();
 
-		LOGGER.info("No. questions: " + numGenes);
+		// concurrent runs can't each take the next free ID, so they are assigned up front
+		int[] firstIds = new int[requests.size()];
+		int nextId = QuestionPaperService.getInstance().getNewQuestionPaperId();
+		for (int i = 0; i < requests.size(); i++) {
+			firstIds[i] = nextId;
+			nextId += requests.get(i).getParameters().getNumForms();
+		}
 
-		Individual[] population = gaUtils.initialiseIndividualArray(skillLevel.getIntVal(), minsRequired);
-		Individual[] offspring = gaUtils.initialiseIndividualArray(skillLevel.getIntVal(), minsRequired);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1,
+			Math.min(requests.size(), Constants.BATCH_GENERATION_THREADS)));
+		List<GenerationResult> results = new ArrayList<>();
+
+		try {
+			List<Future<GenerationResult>> futures = new ArrayList<>();
+			for (int i = 0; i < requests.size(); i++) {
+				PaperRequest request = requests.get(i);
+				int firstId = firstIds[i];
+				futures.add(executor.submit(() -> generate(poolsBySubjectId.get(request.getSubjectId()), firstId,
+					storedPapers, request.getSubjectId(), request.getTitle(), request.getCourseTitle(),
+					request.getCourseCode(), request.getSkillLevel(), request.getMinsRequired(),
+					request.getParameters(), System.currentTimeMillis(), System.nanoTime())));
+			}
+			for (Future<GenerationResult> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating papers", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException("Paper generation failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
 
-		gaUtils.randomisePopulationGenes(population, numGenes, questions);
-		gaUtils.evaluate(population);
+		List<QuestionPaper> papers = results.stream()
+			.flatMap(result -> result.getQuestionPapers().stream())
+			.collect(Collectors.toList());
+		QuestionPaperService.getInstance().addQuestionPapers(papers);
 
-		for (int g = 1; g <= Constants.GENERATIONS; g++) {
-			gaUtils.selection(population, offspring);
-			gaUtils.evaluate(offspring);
+		LOGGER.info(papers.size() + " question papers generated for " + requests.size() + " requests ("
+			+ (System.currentTimeMillis() - startTime) + " ms)");
+		return results;
+	}
 
-			gaUtils.crossover(offspring, skillLevel.getIntVal(), minsRequired);
-			gaUtils.evaluate(offspring);
+	/**
+	 * Generate a question paper (or parallel forms of it) from a prepared pool.
+	 * 
+	 * @param pool         - the pool of possible questions to include in the paper
+	 * @param firstId      - the ID of the paper (or of its first form, the rest following on)
+	 * @param storedPapers - the papers already generated, to warm-start from
+	 * @param subjectId    - the subject ID of the paper
+	 * @param title        - the title of the paper
+	 * @param courseTitle  - the course title of the paper
+	 * @param courseCode   - the course code of the paper
+	 * @param skillLevel   - the mean skill level of the paper
+	 * @param minsRequired - the approximate minutes required the user wants for the paper
+	 * @param parameters   - the settings of the run, such as its seed and stopping criteria
+	 * @param startTime    - the System.currentTimeMillis at which the run started
+	 * @param startNanos   - the System.nanoTime at which any time budget started
+	 * @return the result of the run, including the generated question paper
+	 */
+	private GenerationResult generate(QuestionPool pool, int firstId, List<QuestionPaper> storedPapers,
+		int subjectId, String title, String courseTitle, String courseCode, BloomSkillLevel skillLevel,
+		int minsRequired, GenerationParameters parameters, long startTime, long startNanos) throws IOException {
 
-			gaUtils.mutation(offspring, questions);
-			gaUtils.evaluate(offspring);
+		LOGGER.info("Generating question paper with seed " + parameters.getSeed() + "...");
 
-			/*
-			 * In this final selection step, the next population is defined using the new offspring,
-			 * so 'population' and 'offspring' are switched round when calling the function.
-			 */
-			gaUtils.selection(offspring, population);
-			gaUtils.evaluate(population);
+		GAUtils gaUtils = GAUtils.getInstance();
+		int numForms = parameters.getNumForms();
 
-			List<Double> meanHiLo = gaUtils.getTableFitnesses(population);
-			if (Constants.TEST_MODE) {
-				writer.append(g + ",");
-				writer.append(Double.toString(meanHiLo.get(0)) + ",");
-				writer.append(Double.toString(meanHiLo.get(1)) + ",");
-				writer.append(Double.toString(meanHiLo.get(2)) + "\n");
+		// pre-filter the pool (see QuestionPoolFilter): infeasible questions before the chromosome length
+		QuestionPool feasiblePool = QuestionPoolFilter.removeInfeasible(pool, minsRequired, numForms);
+		int numGenes = gaUtils.calculateChromosomeLength(feasiblePool, skillLevel.getIntVal(), minsRequired);
 
-				LOGGER.info("Generation: " + g + " / " + Constants.GENERATIONS + " mean fitness: " + meanHiLo.get(0)
-					+ " highest: " + meanHiLo.get(1) + " lowest: " + meanHiLo.get(2));
+		if (numForms > 1) {
+			int formLength = Math.min(numGenes, feasiblePool.size() / numForms);
+			if (formLength < Constants.MIN_QUESTIONS_PER_PAPER) {
+				throw new IllegalArgumentException("Not enough questions for " + numForms + " forms");
 			}
+			LOGGER.info("No. forms: " + numForms + ", no. questions per form: " + formLength);
+			numGenes = numForms * formLength;
+		} else {
+			LOGGER.info("No. questions: " + numGenes);
 		}
-		if (Constants.TEST_MODE) {
-			writer.flush();
-			writer.close();
+
+		// then dominated ones, as the chromosome length bounds how many of a type can be used
+		QuestionPool searchPool = QuestionPoolFilter.removeDominated(feasiblePool, numGenes, parameters.getSeed());
+		LOGGER.info("Pre-filtered pool: " + pool.size() + " questions, " + (pool.size() - feasiblePool.size())
+			+ " infeasible, " + (feasiblePool.size() - searchPool.size()) + " dominated, " + searchPool.size()
+			+ " left");
+
+		PaperGenerationStrategy strategy;
+		if (numForms > 1) {
+			strategy = getFormsStrategy(parameters.getStrategyType());
+		} else {
+			List<List<Integer>> seedPapers = findSimilarPapers(storedPapers, subjectId, skillLevel, minsRequired);
+			if (!seedPapers.isEmpty()) {
+				LOGGER.info("Warm-starting from " + seedPapers.size() + " similar stored papers");
+			}
+			strategy = getStrategy(parameters.getStrategyType(), searchPool, numGenes, seedPapers);
 		}
 
-		Individual fittest = gaUtils.findFittest(population);
-		QuestionPaper questionPaper = makePaperOutOfFittest(fittest, subjectId, title, courseTitle, courseCode,
-			skillLevel);
+		GenerationResult result = strategy.generate(searchPool, numGenes, skillLevel.getIntVal(), minsRequired,
+			parameters, startNanos);
+		makeQuestionPapers(result, firstId, subjectId, title, courseTitle, courseCode, skillLevel);
 
 		long finishTime = System.currentTimeMillis();
+		result.setTimeMillis(finishTime - startTime);
+
+		LOGGER.info("Question paper generated: " + result);
+		return result;
+	}
 
-		LOGGER.info("Question paper generated in " + (finishTime - startTime) + " ms");
-		return Optional.of(questionPaper);
+	/**
+	 * Find the stored papers similar to a requested one, to warm-start the GA from: those of the same
+	 * subject and skill level, with total minutes within WARM_START_MINS_TOLERANCE of those
+	 * requested. Parallel forms are stored as separate papers, so each qualifies on its own.
+	 * 
+	 * @param storedPapers - the papers already generated
+	 * @param subjectId    - the subject ID of the requested paper
+	 * @param skillLevel   - the skill level of the requested paper
+	 * @param minsRequired - the minutes required of the requested paper
+	 * @return the question IDs of each similar paper, closest in minutes (then newest) first
+	 */
+	private List<List<Integer>> findSimilarPapers(List<QuestionPaper> storedPapers, int subjectId,
+		BloomSkillLevel skillLevel, int minsRequired) {
+
+		return storedPapers.stream()
+			.filter(qp -> qp.getSubjectId() == subjectId && qp.getSkillLevel() == skillLevel
+				&& Math.abs(qp.getMinutesRequired() - minsRequired) <= Constants.WARM_START_MINS_TOLERANCE)
+			.sorted(Comparator.comparingInt((QuestionPaper qp) -> Math.abs(qp.getMinutesRequired() - minsRequired))
+				.thenComparing(Comparator.comparingInt(QuestionPaper::getId).reversed()))
+			.map(QuestionPaper::getQuestionIds)
+			.collect(Collectors.toList());
 	}
 
 	/**
-	 * Create a QuestionPaper object in order to write it to the papers XML file, out of an
-	 * Individual and other question paper parameters.
+	 * Get the search algorithm implementation of a strategy type. The AUTO type chooses the exact
+	 * solver if its estimated work for the pool is small enough, otherwise the GA, which is given
+	 * the seed papers to warm-start from.
+	 * 
+	 * @param strategyType - the type of strategy
+	 * @param pool         - the pool of possible questions
+	 * @param numGenes     - the number of questions per paper
+	 * @param seedPapers   - the question IDs of each previous paper to warm-start the GA from
+	 * @return the strategy
+	 */
+	private PaperGenerationStrategy getStrategy(GenerationStrategyType strategyType, QuestionPool pool,
+		int numGenes, List<List<Integer>> seedPapers) {
+
+		switch (strategyType) {
+			case AUTO:
+				long exactSolverWork = ExactSolver.estimateWork(pool, numGenes);
+				if (exactSolverWork <= Constants.EXACT_SOLVER_MAX_WORK) {
+					LOGGER.info("Solving exactly (estimated work: " + exactSolverWork + ")");
+					return new ExactSolver();
+				}
+				return new GeneticAlgorithmStrategy(seedPapers);
+			case SIMULATED_ANNEALING:
+				return new SimulatedAnnealing();
+			case EXACT:
+				return new ExactSolver();
+			default: // genetic algorithm
+				return new GeneticAlgorithmStrategy(seedPapers);
+		}
+	}
+
+	/**
+	 * Get the search algorithm implementation of a strategy type, for parallel forms. The exact
+	 * solver only handles single papers, so AUTO and EXACT fall back to simulated annealing, which
+	 * finds fitter forms than the GA in the same time (its swaps keep each form intact, whereas
+	 * crossover mixes questions between forms).
+	 * 
+	 * @param strategyType - the type of strategy
+	 * @return the strategy
+	 */
+	private PaperGenerationStrategy getFormsStrategy(GenerationStrategyType strategyType) {
+		return strategyType == GenerationStrategyType.GENETIC_ALGORITHM ? new GeneticAlgorithmStrategy()
+			: new SimulatedAnnealing();
+	}
+
+	/**
+	 * Create the question paper (or parallel forms of it) of a run's fittest individual.
+	 * 
+	 * @param result      - the result of the run, to which the papers are added
+	 * @param firstId     - the ID of the paper (or of its first form, the rest following on)
+	 * @param subjectId   - the subject ID of the paper
+	 * @param title       - the title of the paper
+	 * @param courseTitle - the course title of the paper
+	 * @param courseCode  - the course code of the paper
+	 * @param skillLevel  - the skill level of the paper
+	 */
+	private void makeQuestionPapers(GenerationResult result, int firstId, int subjectId, String title,
+		String courseTitle, String courseCode, BloomSkillLevel skillLevel) {
+
+		Individual fittest = result.getFittest();
+		if (fittest.getNumForms() > 1) {
+			result.setQuestionPapers(makeFormsOutOfFittest(fittest, firstId, subjectId, title, courseTitle,
+				courseCode, skillLevel));
+		} else {
+			result.setQuestionPaper(makePaper(firstId, fittest.getGenes(), fittest.getPool(), subjectId, title,
+				courseTitle, courseCode, skillLevel));
+		}
+	}
+
+	/**
+	 * Create a QuestionPaper object for each form of an Individual holding parallel forms, with
+	 * consecutive IDs and the form letter appended to the title.
 	 * 
 	 * @param fittest     - the fittest individual to use, produced by the genetic algorithm
+	 * @param firstId     - the ID of the first form
+	 * @param subjectId   - the subject ID of the papers
+	 * @param title       - the title of the papers
+	 * @param courseTitle - the course title of the papers
+	 * @param courseCode  - the course code of the papers
+	 * @param skillLevel  - the skill level of the papers
+	 * @return the equivalent QuestionPaper objects, one per form
+	 */
+	private List<QuestionPaper> makeFormsOutOfFittest(Individual fittest, int firstId, int subjectId, String title,
+		String courseTitle, String courseCode, BloomSkillLevel skillLevel) {
+
+		int formLength = fittest.getFormLength();
+
+		List<QuestionPaper> forms = new ArrayList<>();
+		for (int f = 0; f < fittest.getNumForms(); f++) {
+			int[] formGenes = Arrays.copyOfRange(fittest.getGenes(), f * formLength, (f + 1) * formLength);
+			String formTitle = title + " Form " + (char) (Constants.ASCII_UPPER_A + f);
+			forms.add(makePaper(firstId + f, formGenes, fittest.getPool(), subjectId, formTitle, courseTitle,
+				courseCode, skillLevel));
+		}
+		return forms;
+	}
+
+	/**
+	 * Create a QuestionPaper object in order to write it to the papers XML file, out of a chromosome
+	 * (or one form of it) and other question paper parameters.
+	 * 
+	 * @param id          - the ID of the paper
+	 * @param genes       - the pool indexes of the paper's questions
+	 * @param pool        - the pool of questions which the genes index into
 	 * @param subjectId   - the subject ID of the paper
 	 * @param title       - the title of the paper
 	 * @param courseTitle - the course title of the paper
@@ -130,19 +507,25 @@ public class QuestionPaperGenerator {
 	 * @param skillLevel  - the skill level of the paper
 	 * @return the equivalent QuestionPaper object
 	 */
-	private QuestionPaper makePaperOutOfFittest(Individual fittest, int subjectId, String title, String courseTitle,
-		String courseCode, BloomSkillLevel skillLevel) {
+	private QuestionPaper makePaper(int id, int[] genes, QuestionPool pool, int subjectId, String title,
+		String courseTitle, String courseCode, BloomSkillLevel skillLevel) {
 
-		int id = QuestionPaperService.getInstance().getNewQuestionPaperId();
+		// materialise the chromosome's pool indexes back into questions
+		List<Question> questions = Arrays.stream(genes)
+			.mapToObj(pool::getQuestion)
+			.collect(Collectors.toList());
 
 		// sort questions in ascending order of marks, meaning longer questions appear towards the end
-		List<Question> questions = fittest.getGenes();
 		questions.sort(Comparator.comparing(Question::getMarks));
 
 		List<Integer> questionIds = questions.stream().map(Question::getId).collect(Collectors.toList());
 
-		int marks = questions.stream().mapToInt(Question::getMarks).reduce(0, Integer::sum);
-		int minsRequired = questions.stream().mapToInt(Question::getMinutesRequired).reduce(0, Integer::sum);
+		int marks = 0;
+		int minsRequired = 0;
+		for (int gene : genes) {
+			marks += pool.getMarks(gene);
+			minsRequired += pool.getMinsRequired(gene);
+		}
 
 		return new QuestionPaperBuilder()
 			.withId(id)
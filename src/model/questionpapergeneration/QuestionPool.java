@@ -0,0 +1,108 @@
+package model.questionpapergeneration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.persisted.Question;
+
+/**
+ * Represents the read-only pool of candidate questions for a paper. Chromosomes refer to questions
+ * by their index in this pool (rather than holding Question references), and are only materialised
+ * back into questions once the GA has finished. A single pool is shared by every individual of a
+ * generation run.
+ * 
+ * The attributes needed during evolution are also held in parallel primitive arrays (struct of
+ * arrays), built once when the pool is created, so that the fitness function reads ints directly
+ * instead of dereferencing Question objects and unboxing their values.
+ *
+ * @author Sam Barba
+ */
+public class QuestionPool {
+
+	private final List<Question> questions;
+
+	private final int[] ids;
+
+	private final int[] skillLvls;
+
+	private final int[] minsRequired;
+
+	private final int[] marks;
+
+	private final long[] hashKeys;
+
+	public QuestionPool(List<Question> questions) {
+		this.questions = Collections.unmodifiableList(new ArrayList<>(questions));
+
+		int n = this.questions.size();
+		this.ids = new int[n];
+		this.skillLvls = new int[n];
+		this.minsRequired = new int[n];
+		this.marks = new int[n];
+		this.hashKeys = new long[n];
+
+		for (int i = 0; i < n; i++) {
+			Question q = this.questions.get(i);
+			ids[i] = q.getId();
+			skillLvls[i] = q.getSkillLevel().getIntVal();
+			minsRequired[i] = q.getMinutesRequired();
+			marks[i] = q.getMarks();
+			hashKeys[i] = mix64(q.getId());
+		}
+	}
+
+	/**
+	 * Scramble a question ID into a 64-bit pseudorandom key (the SplitMix64 finaliser), so that the
+	 * XOR of a chromosome's keys is a well-distributed hash of its set of questions. The key only
+	 * depends on the ID, so the same paper hashes the same whatever the pool order.
+	 */
+	static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Get the number of candidate questions in the pool.
+	 *
+	 * @return the pool size
+	 */
+	public int size() {
+		return questions.size();
+	}
+
+	/**
+	 * Get the question at a pool index.
+	 *
+	 * @param index - the pool index (gene value) of the question
+	 * @return the question at the specified index
+	 */
+	public Question getQuestion(int index) {
+		return questions.get(index);
+	}
+
+	public List<Question> getQuestions() {
+		return questions;
+	}
+
+	public int getId(int index) {
+		return ids[index];
+	}
+
+	public int getSkillLvl(int index) {
+		return skillLvls[index];
+	}
+
+	public int getMinsRequired(int index) {
+		return minsRequired[index];
+	}
+
+	public int getMarks(int index) {
+		return marks[index];
+	}
+
+	public long getHashKey(int index) {
+		return hashKeys[index];
+	}
+}
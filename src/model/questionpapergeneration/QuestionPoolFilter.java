@@ -0,0 +1,105 @@
+package model.questionpapergeneration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import model.persisted.Question;
+
+import view.utils.Constants;
+
+/**
+ * Shrinks a question pool before a search, so that initialisation, mutation sampling and
+ * convergence all work over fewer candidates. Questions are removed in two stages:
+ *
+ * 1. Infeasible questions, which on their own take longer than the requested minutes. These are
+ * removed before the chromosome length is calculated, so they don't inflate the mean minutes per
+ * question either. A question which fits only with little room to spare is kept, as fitness
+ * rewards the spread of a paper's minutes, so the best paper may well pair it with short ones.
+ *
+ * 2. Dominated questions. Fitness depends only on the skill levels and minutes of a paper's
+ * questions, so questions of the same type (skill level, minutes required) are interchangeable,
+ * and a chromosome of n genes can never use more than n of a type. Any more are redundant, so
+ * only n of each type are kept, chosen at random (from the run's seed) so that successive papers
+ * still draw on all of the subject's questions. This never changes the fittest paper possible.
+ *
+ * The skill level alone never makes a question useless, as fitness rewards the spread of a
+ * paper's skill levels as well as their mean being close to the one requested.
+ *
+ * @author Sam Barba
+ */
+public class QuestionPoolFilter {
+
+	private QuestionPoolFilter() {
+	}
+
+	/**
+	 * Remove the questions which take longer than the requested minutes. If too few
+	 * questions would be left to make a paper (or every form), the pool is returned unchanged.
+	 *
+	 * @param pool              - the pool of possible questions
+	 * @param paperMinsRequired - the user-selected minutes required for the paper
+	 * @param numForms          - the number of parallel forms to generate
+	 * @return the pool of feasible questions
+	 */
+	public static QuestionPool removeInfeasible(QuestionPool pool, int paperMinsRequired, int numForms) {
+		List<Question> feasible = new ArrayList<>();
+		for (int i = 0; i < pool.size(); i++) {
+			if (pool.getMinsRequired(i) <= paperMinsRequired) {
+				feasible.add(pool.getQuestion(i));
+			}
+		}
+
+		if (feasible.size() == pool.size() || feasible.size() < numForms * Constants.MIN_QUESTIONS_PER_PAPER) {
+			return pool;
+		}
+		return new QuestionPool(feasible);
+	}
+
+	/**
+	 * Keep at most numGenes questions of each type (skill level, minutes required), chosen at
+	 * random, in pool order.
+	 *
+	 * @param pool     - the pool of possible questions
+	 * @param numGenes - the number of questions per chromosome (across all forms)
+	 * @param seed     - the seed of the run, from which the kept questions are chosen
+	 * @return the pool without dominated questions
+	 */
+	public static QuestionPool removeDominated(QuestionPool pool, int numGenes, long seed) {
+		Map<Long, List<Integer>> indexesByType = new HashMap<>();
+		for (int i = 0; i < pool.size(); i++) {
+			long type = (long) pool.getSkillLvl(i) << 32 | pool.getMinsRequired(i);
+			indexesByType.computeIfAbsent(type, k -> new ArrayList<>()).add(i);
+		}
+
+		boolean[] kept = new boolean[pool.size()];
+		int numKept = 0;
+		SplittableRandom rand = new SplittableRandom(seed);
+
+		for (List<Integer> indexes : indexesByType.values()) {
+			int numOfType = Math.min(indexes.size(), numGenes);
+			// partial Fisher-Yates shuffle, to keep a random subset of the type
+			for (int i = 0; i < numOfType; i++) {
+				int j = i + rand.nextInt(indexes.size() - i);
+				int index = indexes.get(j);
+				indexes.set(j, indexes.get(i));
+				kept[index] = true;
+			}
+			numKept += numOfType;
+		}
+
+		if (numKept == pool.size()) {
+			return pool;
+		}
+
+		List<Question> questions = new ArrayList<>(numKept);
+		for (int i = 0; i < pool.size(); i++) {
+			if (kept[i]) {
+				questions.add(pool.getQuestion(i));
+			}
+		}
+		return new QuestionPool(questions);
+	}
+}
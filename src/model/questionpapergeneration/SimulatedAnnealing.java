@@ -0,0 +1,120 @@
+package model.questionpapergeneration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import view.enums.TerminationReason;
+import view.utils.Constants;
+
+/**
+ * Generates a question paper by simulated annealing: a single random paper is repeatedly changed by
+ * swapping one of its questions for one not in it. Improving swaps are always accepted, and
+ * worsening ones with probability exp(delta / temperature), where the temperature cools
+ * geometrically from ANNEALING_INITIAL_TEMPERATURE to ANNEALING_FINAL_TEMPERATURE over the run, so
+ * that the search can escape local optima early on but settles by the end.
+ * 
+ * Each swap is evaluated in O(1) (see Individual.fitnessWithGene), and only 2 individuals exist
+ * (the current and best papers), rather than whole populations.
+ *
+ * @author Sam Barba
+ */
+public class SimulatedAnnealing implements PaperGenerationStrategy {
+
+	/*
+	 * How often (in iterations) to check the time budget, as an iteration is far cheaper than
+	 * reading the clock.
+	 */
+	private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+	/*
+	 * How many times over a run to report progress to (and check for cancellation by) the progress
+	 * listener.
+	 */
+	private static final int NUM_PROGRESS_REPORTS = 100;
+
+	/**
+	 * Anneal for the number of iterations in the generation parameters, unless the time budget
+	 * expires, the target fitness (or an exact match) is reached or the run is cancelled first. Each
+	 * iteration counts as a generation in the result; the stagnation window does not apply.
+	 */
+	@Override
+	public GenerationResult generate(QuestionPool pool, int numGenes, int paperSkillLvl, int paperMinsRequired,
+		GenerationParameters parameters, long startNanos) {
+
+		SplittableRandom rand = new SplittableRandom(parameters.getSeed());
+		IndexSampler sampler = new IndexSampler(pool.size());
+
+		// with parallel forms, the chromosome holds every form
+		int numForms = parameters.getNumForms();
+		Individual current = new Individual(pool, numForms, numGenes / numForms, paperSkillLvl, paperMinsRequired);
+		Individual best = new Individual(pool, numForms, numGenes / numForms, paperSkillLvl, paperMinsRequired);
+
+		int[] randGenes = new int[numGenes];
+		sampler.sample(randGenes, rand);
+		current.setGenes(randGenes);
+		current.calculateFitness();
+		best.copyFrom(current);
+
+		int numIterations = parameters.getAnnealingIterations();
+		double temperature = Constants.ANNEALING_INITIAL_TEMPERATURE;
+		double coolingRate = Math.pow(Constants.ANNEALING_FINAL_TEMPERATURE / Constants.ANNEALING_INITIAL_TEMPERATURE,
+			1.0 / numIterations);
+
+		GenerationProgressListener progressListener = parameters.getProgressListener();
+		int progressInterval = Math.max(1, numIterations / NUM_PROGRESS_REPORTS);
+		boolean hasDeadline = parameters.getTimeBudgetMillis() > 0;
+		long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(parameters.getTimeBudgetMillis());
+
+		TerminationReason terminationReason = TerminationReason.MAX_GENERATIONS;
+		int k = 0;
+
+		if (isTargetReached(best, parameters)) {
+			terminationReason = TerminationReason.TARGET_REACHED;
+		} else if (!current.containsAllPossibleGenes()) {
+			for (; k < numIterations; k++) {
+				if (hasDeadline && k % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos >= 0) {
+					terminationReason = TerminationReason.DEADLINE;
+					break;
+				}
+				if (progressListener != null && k > 0 && k % progressInterval == 0) {
+					progressListener.progressed(k, numIterations, best.getFitness());
+					if (progressListener.isCancelled()) {
+						terminationReason = TerminationReason.CANCELLED;
+						break;
+					}
+				}
+
+				// swap a random gene for a random question not already in the paper
+				int i = rand.nextInt(numGenes);
+				sampler.reset();
+				int candidate = sampler.next(rand);
+				while (current.containsGene(candidate)) {
+					candidate = sampler.next(rand);
+				}
+
+				double delta = current.fitnessWithGene(i, candidate) - current.getFitness();
+				if (delta >= 0 || rand.nextDouble() < Math.exp(delta / temperature)) {
+					current.setGene(i, candidate);
+					current.calculateFitness();
+
+					if (current.getFitness() > best.getFitness()) {
+						best.copyFrom(current);
+						if (isTargetReached(best, parameters)) {
+							terminationReason = TerminationReason.TARGET_REACHED;
+							k++;
+							break;
+						}
+					}
+				}
+				temperature *= coolingRate;
+			}
+		}
+
+		return new GenerationResult(best, k, terminationReason, null);
+	}
+
+	private boolean isTargetReached(Individual best, GenerationParameters parameters) {
+		return best.getFitness() >= parameters.getTargetFitness()
+			|| (parameters.isStopOnExactMatch() && best.isExactMatch());
+	}
+}
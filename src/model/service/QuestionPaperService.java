@@ -55,6 +55,18 @@ public class QuestionPaperService {
 		questionPaperDao.addQuestionPaper(questionPaper);
 	}
 
+	/**
+	 * Add several question papers to the question papers XML file as one batch, e.g. the parallel
+	 * forms of a paper.
+	 * 
+	 * @param questionPapers - the question papers to add
+	 */
+	public void addQuestionPapers(List<QuestionPaper> questionPapers) {
+		LocalDateTime dateCreated = LocalDateTime.now();
+		questionPapers.forEach(qp -> qp.setDateCreated(dateCreated));
+		questionPaperDao.addQuestionPapers(questionPapers);
+	}
+
 	/**
 	 * Delete question papers by their unique IDs.
 	 * 
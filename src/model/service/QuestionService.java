@@ -14,6 +14,7 @@ import model.persisted.Answer;
 import model.persisted.Question;
 import model.persisted.QuestionPaper;
 import model.persisted.Subject;
+import model.questionpapergeneration.GenerationResultCache;
 
 import view.utils.Constants;
 
@@ -41,22 +42,26 @@ public class QuestionService {
 	}
 
 	/**
-	 * Add a question to the questions XML file.
+	 * Add a question to the questions XML file, invalidating the cached papers of its subject.
 	 * 
 	 * @param question - the question to add
 	 */
 	public void addQuestion(Question question) {
 		question.setDateCreated(LocalDateTime.now());
 		questionDao.addQuestion(question);
+		GenerationResultCache.getInstance().invalidateSubject(question.getSubjectId());
 	}
 
 	/**
-	 * Delete questions by their unique IDs.
+	 * Delete questions by their unique IDs, invalidating the cached papers of their subjects.
 	 * 
 	 * @param ids - the IDs of the questions to delete
 	 */
 	public void deleteQuestionsByIds(List<Integer> ids) {
-		questionDao.deleteQuestionsByIds(ids);
+		questionDao.deleteQuestionsByIds(ids).stream()
+			.map(Question::getSubjectId)
+			.distinct()
+			.forEach(GenerationResultCache.getInstance()::invalidateSubject);
 	}
 
 	/**
@@ -0,0 +1,15 @@
+package view.enums;
+
+/**
+ * Represents the search algorithm used to generate a question paper.
+ *
+ * @author Sam Barba
+ */
+public enum GenerationStrategyType {
+
+	// the exact solver if the pool is small enough (see EXACT_SOLVER_MAX_WORK), otherwise the GA
+	AUTO,
+	GENETIC_ALGORITHM,
+	SIMULATED_ANNEALING,
+	EXACT;
+}
@@ -0,0 +1,15 @@
+package view.enums;
+
+/**
+ * Represents when the GA refines its fittest individuals with local search (the memetic stage).
+ *
+ * @author Sam Barba
+ */
+public enum LocalSearchMode {
+
+	NONE,
+	// every few generations
+	PERIODIC,
+	// only once evolution has finished
+	FINAL;
+}
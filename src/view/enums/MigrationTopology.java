@@ -0,0 +1,12 @@
+package view.enums;
+
+/**
+ * Represents the topology over which islands exchange their best individuals in the island-model
+ * GA.
+ *
+ * @author Sam Barba
+ */
+public enum MigrationTopology {
+	RING,
+	RANDOM;
+}
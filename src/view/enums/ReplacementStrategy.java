@@ -0,0 +1,19 @@
+package view.enums;
+
+/**
+ * Represents how the GA replaces its population each generation.
+ *
+ * @author Sam Barba
+ */
+public enum ReplacementStrategy {
+
+	// the whole population is replaced by selection from the offspring
+	GENERATIONAL,
+	// as generational, but the fittest few individuals are carried over unchanged
+	ELITIST,
+	/*
+	 * A few offspring are bred per generation, each replacing the least fit individual if fitter. As
+	 * a generation is so much cheaper, far more of them (or a time budget) are needed.
+	 */
+	STEADY_STATE;
+}
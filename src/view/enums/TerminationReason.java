@@ -0,0 +1,27 @@
+package view.enums;
+
+/**
+ * Represents the reason a GA run stopped.
+ *
+ * @author Sam Barba
+ */
+public enum TerminationReason {
+
+	MAX_GENERATIONS("Maximum generations reached"),
+	STAGNATION("Best fitness stopped improving"),
+	TARGET_REACHED("Target fitness reached"),
+	DEADLINE("Time budget expired"),
+	OPTIMAL("Optimal paper found"),
+	CANCELLED("Cancelled");
+
+	private String strVal;
+
+	TerminationReason(String strVal) {
+		this.strVal = strVal;
+	}
+
+	@Override
+	public String toString() {
+		return strVal;
+	}
+}
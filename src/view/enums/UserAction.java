@@ -11,6 +11,7 @@ public enum UserAction {
 	ADD_NEW_QUESTION("Add new question"),
 	ADD_NEW_SUBJECT("Add new subject"),
 	ADD_NEW_USER("Add new user"),
+	CANCEL("Cancel"),
 	CHANGE_PASSWORD("Change password"),
 	CHOOSE_EXPORT_DESTINATION("Choose export destination"),
 	CONFIRM_NO("No"),
@@ -2,6 +2,10 @@ package view.utils;
 
 import java.time.format.DateTimeFormatter;
 
+import view.enums.GenerationStrategyType;
+import view.enums.LocalSearchMode;
+import view.enums.MigrationTopology;
+import view.enums.ReplacementStrategy;
 import view.enums.SelectionType;
 
 /**
@@ -60,18 +64,225 @@ public final class Constants {
 	 */
 	public static final int MIN_QUESTIONS_PER_PAPER = 2;
 
+	/**
+	 * The search algorithm used to generate question papers.
+	 */
+	public static final GenerationStrategyType GENERATION_STRATEGY = GenerationStrategyType.AUTO;
+
+	/**
+	 * With the AUTO strategy, pools whose estimated exact solver work (see
+	 * ExactSolver.estimateWork) is at most this are solved exactly instead of with the GA.
+	 */
+	public static final long EXACT_SOLVER_MAX_WORK = 20000000;
+
+	/**
+	 * The most DP states the exact solver allocates (about 16 bytes each). Pools with more, even if
+	 * the exact solver was chosen explicitly, are searched by simulated annealing instead.
+	 */
+	public static final long EXACT_SOLVER_MAX_STATES = 10000000;
+
+	/**
+	 * Number of iterations (swap moves) of a simulated annealing run.
+	 */
+	public static final int ANNEALING_ITERATIONS = 200000;
+
+	/**
+	 * Simulated annealing temperatures at the start and end of a run: a swap which lowers fitness by
+	 * the temperature is accepted with probability 1/e.
+	 */
+	public static final double ANNEALING_INITIAL_TEMPERATURE = 5;
+
+	public static final double ANNEALING_FINAL_TEMPERATURE = 0.01;
+
+	/**
+	 * Number of parallel forms (disjoint, equivalent papers) generated per run by default, and the
+	 * most that can be chosen when generating a paper.
+	 */
+	public static final int NUM_FORMS = 1;
+
+	public static final int MAX_FORMS = 5;
+
+	/**
+	 * Fraction of the GA's initial population seeded rather than random (0 means never): first from
+	 * stored papers of the same subject and skill level, with total minutes within the tolerance of
+	 * those requested, then from greedily constructed chromosomes.
+	 */
+	public static final double WARM_START_FRACTION = 0.1;
+
+	public static final int WARM_START_MINS_TOLERANCE = 15;
+
+	/**
+	 * Number of random questions considered for each gene of a greedily constructed chromosome.
+	 */
+	public static final int GREEDY_CANDIDATES = 64;
+
+	/**
+	 * Whether a generation request which repeats a previous one (same paper parameters, settings
+	 * and seed, with the same questions and stored papers) returns the cached result instead of
+	 * searching again, and the most results cached.
+	 */
+	public static final boolean USE_RESULT_CACHE = true;
+
+	public static final int RESULT_CACHE_SIZE = 64;
+
+	/**
+	 * Seed of the papers generated from the UI, so that repeat requests are served from the result
+	 * cache (unless the user asks for a fresh paper, which uses a random seed).
+	 */
+	public static final long UI_GENERATION_SEED = 1;
+
 	public static final SelectionType SELECTION_TYPE = SelectionType.TOURNAMENT;
 
-	public static final int POP_SIZE = 2000;
+	/**
+	 * Population size of a GA run (0 means derived from the number of possible papers, see
+	 * GAUtils.calculatePopulationSize).
+	 */
+	public static final int POP_SIZE = 0;
+
+	/**
+	 * Bounds of a derived population size, and the number of individuals per bit of the search
+	 * space (log2 of the number of possible papers).
+	 */
+	public static final int MIN_POP_SIZE = 20;
+
+	public static final int MAX_POP_SIZE = 5000;
+
+	public static final double POP_SIZE_PER_BIT = 20;
 
 	public static final double MUTATION_RATE = 0.01;
 
 	public static final double CROSSOVER_RATE = 0.8;
 
-	public static final int GENERATIONS = 25;
+	/**
+	 * Maximum number of generations of a GA run (0 means derived from the number of possible
+	 * papers, see GAUtils.calculateMaxGenerations).
+	 */
+	public static final int GENERATIONS = 0;
+
+	/**
+	 * Bounds of a derived maximum number of generations, and the number of generations per bit of
+	 * the search space.
+	 */
+	public static final int MIN_GENERATIONS = 5;
+
+	public static final int MAX_GENERATIONS = 100;
+
+	public static final double GENERATIONS_PER_BIT = 0.5;
+
+	/**
+	 * A GA run stops early if its best fitness hasn't improved for this many generations (0 means
+	 * never).
+	 */
+	public static final int STAGNATION_WINDOW = 5;
+
+	/**
+	 * A GA run stops early once its best fitness reaches this.
+	 */
+	public static final double TARGET_FITNESS = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Whether a GA run stops early once its fittest paper matches the requested duration exactly
+	 * (with a mean skill level that rounds to the requested one).
+	 */
+	public static final boolean STOP_ON_EXACT_MATCH = true;
+
+	/**
+	 * Wall-clock budget of a question paper generation run in milliseconds, after which the best
+	 * paper found so far is returned (0 means no budget).
+	 */
+	public static final long TIME_BUDGET_MILLIS = 0;
+
+	/**
+	 * How the GA replaces its population each generation.
+	 */
+	public static final ReplacementStrategy REPLACEMENT_STRATEGY = ReplacementStrategy.GENERATIONAL;
+
+	/**
+	 * Number of fittest individuals carried over unchanged each generation, with ELITIST replacement.
+	 */
+	public static final int NUM_ELITES = 2;
+
+	/**
+	 * Number of offspring bred (each replacing the least fit individual, if fitter) per generation,
+	 * with STEADY_STATE replacement.
+	 */
+	public static final int STEADY_STATE_REPLACEMENTS = 2;
+
+	/**
+	 * Maximum number of entries in the fitness cache of a GA run (0 means no cache). Fitness is
+	 * cheap to calculate, so the cache is off by default; see the hit rate and estimated time saved
+	 * in the generation result before enabling it.
+	 */
+	public static final int FITNESS_CACHE_SIZE = 0;
+
+	/**
+	 * When the GA refines its fittest individuals with swap local search (the memetic stage).
+	 */
+	public static final LocalSearchMode LOCAL_SEARCH_MODE = LocalSearchMode.NONE;
+
+	/**
+	 * Number of generations between local searches, with PERIODIC local search.
+	 */
+	public static final int LOCAL_SEARCH_INTERVAL = 5;
+
+	/**
+	 * Number of fittest individuals (per island) refined by each local search.
+	 */
+	public static final int LOCAL_SEARCH_INDIVIDUALS = 3;
+
+	/**
+	 * Maximum number of sweeps over every (gene, question) swap of one local search. A search also
+	 * stops after a sweep which finds no improvement.
+	 */
+	public static final int LOCAL_SEARCH_MAX_PASSES = 5;
 
 	public static final int TOURNAMENT_SIZE = 2;
 
+	/**
+	 * Populations at least this large are evaluated in parallel; smaller ones sequentially.
+	 */
+	public static final int PARALLEL_EVALUATION_THRESHOLD = 20000;
+
+	/**
+	 * Number of threads used for parallel evaluation (if not positive, the common ForkJoinPool is
+	 * used instead).
+	 */
+	public static final int EVALUATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Maximum number of individuals evaluated sequentially by one parallel evaluation task.
+	 */
+	public static final int EVALUATION_CHUNK_SIZE = 2048;
+
+	/**
+	 * Number of islands (sub-populations) in the island-model GA, which share the population between
+	 * them. 1 means a single panmictic population.
+	 */
+	public static final int NUM_ISLANDS = 1;
+
+	/**
+	 * Number of generations islands evolve independently between migrations.
+	 */
+	public static final int MIGRATION_INTERVAL = 5;
+
+	/**
+	 * Number of best individuals each island sends to its neighbour per migration.
+	 */
+	public static final int NUM_MIGRANTS = 2;
+
+	public static final MigrationTopology MIGRATION_TOPOLOGY = MigrationTopology.RING;
+
+	/**
+	 * Maximum number of threads the islands of one run are evolved on.
+	 */
+	public static final int ISLAND_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Maximum number of papers generated concurrently by a batch (QuestionPaperGenerator
+	 * generatePapers).
+	 */
+	public static final int BATCH_GENERATION_THREADS = Runtime.getRuntime().availableProcessors();
+
 	public static final boolean TEST_MODE = false;
 
 	public static final String GENETIC_ALGORITHM_TEST_RESULTS = "C:\\Users\\Sam Barba\\Desktop\\Work\\Uni\\Year 3\\DSP\\GA-test-results.csv";
@@ -49,6 +49,14 @@ public class QuestionPaperDAOTest {
 		assertTrue(questionPaperWithIdExists(PAPER_ID1));
 	}
 
+	@Test
+	public void testAddQuestionPapers() {
+		questionPaperDao.addQuestionPapers(Arrays.asList(makeNewQuestionPaper(PAPER_ID1),
+			makeNewQuestionPaper(PAPER_ID2)));
+
+		assertTrue(questionPaperWithIdExists(PAPER_ID1) && questionPaperWithIdExists(PAPER_ID2));
+	}
+
 	@Test
 	public void testDeleteQuestionPaperById_id_exists() {
 		// ensure question paper XML file exists
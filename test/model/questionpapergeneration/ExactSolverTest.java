@@ -0,0 +1,138 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import model.builders.GenerationParametersBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.enums.TerminationReason;
+
+public class ExactSolverTest {
+
+	private static final int POOL_SIZE = 16;
+
+	private static final int NUM_GENES = 5;
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final long SEED = 1;
+
+	@Test
+	public void testGenerate_matches_brute_force_optimum() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < POOL_SIZE; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i * 7 % 6 + 1), i * 5 % 13 + 1));
+		}
+		QuestionPool pool = new QuestionPool(questions);
+
+		for (int paperMinsRequired : new int[] { 10, 30, 50 }) {
+			GenerationResult result = new ExactSolver().generate(pool, NUM_GENES, PAPER_SKILL_LVL,
+				paperMinsRequired, new GenerationParametersBuilder().withSeed(SEED).build(), System.nanoTime());
+
+			BitSet genes = new BitSet(POOL_SIZE);
+			for (int gene : result.getFittest().getGenes()) {
+				genes.set(gene);
+			}
+			assertEquals(NUM_GENES, genes.cardinality());
+			assertEquals(TerminationReason.OPTIMAL, result.getTerminationReason());
+			assertEquals(bruteForceOptimum(pool, paperMinsRequired), result.getFinalFitness(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testGenerate_too_many_states_falls_back_to_simulated_annealing() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+		QuestionPool pool = new QuestionPool(questions);
+		// 61 counts x 901 minutes sums x 361 skill level sums is beyond EXACT_SOLVER_MAX_STATES
+		int numGenes = 60;
+
+		GenerationResult result = new ExactSolver().generate(pool, numGenes, PAPER_SKILL_LVL, 400,
+			new GenerationParametersBuilder().withSeed(SEED).build(), System.nanoTime());
+
+		BitSet genes = new BitSet(pool.size());
+		for (int gene : result.getFittest().getGenes()) {
+			genes.set(gene);
+		}
+		assertEquals(numGenes, genes.cardinality());
+		assertNotEquals(TerminationReason.OPTIMAL, result.getTerminationReason());
+	}
+
+	@Test
+	public void testGenerate_returns_known_paper_when_time_budget_expires() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+		QuestionPool pool = new QuestionPool(questions);
+
+		// the budget started a second ago, so it expires before the first type is considered
+		GenerationResult result = new ExactSolver().generate(pool, NUM_GENES, PAPER_SKILL_LVL, 30,
+			new GenerationParametersBuilder().withSeed(SEED).withTimeBudgetMillis(1).build(),
+			System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+
+		BitSet genes = new BitSet(pool.size());
+		for (int gene : result.getFittest().getGenes()) {
+			genes.set(gene);
+		}
+		assertEquals(NUM_GENES, genes.cardinality());
+		assertEquals(TerminationReason.DEADLINE, result.getTerminationReason());
+	}
+
+	@Test
+	public void testEstimateWork_grows_with_pool() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+
+		long smallPoolWork = ExactSolver.estimateWork(new QuestionPool(questions.subList(0, 20)), NUM_GENES);
+		long largePoolWork = ExactSolver.estimateWork(new QuestionPool(questions), NUM_GENES);
+
+		assertTrue(smallPoolWork > 0);
+		assertTrue(largePoolWork > smallPoolWork);
+	}
+
+	/**
+	 * Find the best fitness of any paper by evaluating every combination of questions.
+	 */
+	private double bruteForceOptimum(QuestionPool pool, int paperMinsRequired) {
+		Individual individual = new Individual(pool, NUM_GENES, PAPER_SKILL_LVL, paperMinsRequired);
+		int[] genes = new int[NUM_GENES];
+		for (int i = 0; i < NUM_GENES; i++) {
+			genes[i] = i;
+		}
+
+		double best = -Double.MAX_VALUE;
+		while (true) {
+			individual.setGenes(genes.clone());
+			individual.calculateFitness();
+			best = Math.max(best, individual.getFitness());
+
+			// advance to the next combination in lexicographic order
+			int i = NUM_GENES - 1;
+			while (i >= 0 && genes[i] == POOL_SIZE - NUM_GENES + i) {
+				i--;
+			}
+			if (i < 0) {
+				return best;
+			}
+			genes[i]++;
+			for (int j = i + 1; j < NUM_GENES; j++) {
+				genes[j] = genes[j - 1] + 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package model.questionpapergeneration;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import com.sun.management.ThreadMXBean;
+
+import model.builders.GenerationParametersBuilder;
+import model.builders.QuestionBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.enums.LocalSearchMode;
+import view.enums.ReplacementStrategy;
+
+/**
+ * Micro-benchmarks for the GA, run via main (not part of the unit tests). Timings are the median of
+ * several repetitions after a warm-up.
+ *
+ * @author Sam Barba
+ */
+public class GABenchmark {
+
+	private static final int[] POP_SIZES = { 500, 2000, 5000, 10000, 20000, 50000 };
+
+	private static final int POOL_SIZE = 5000;
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final int PAPER_MINS_REQUIRED = 120;
+
+	private static final int REPETITIONS = 15;
+
+	private static final int REPLACEMENT_POP_SIZE = 2000;
+
+	// offspring bred per run when comparing replacement strategies, i.e. 25 generational generations
+	private static final int OFFSPRING_BUDGET = 25 * REPLACEMENT_POP_SIZE;
+
+	private static final int LOCAL_SEARCH_SEEDS = 10;
+
+	private static final Random RAND = new Random(1);
+
+	public static void main(String[] args) throws IOException {
+		QuestionPool pool = makePool(POOL_SIZE);
+
+		benchmarkEvaluation(pool);
+		benchmarkReplacement(pool);
+		benchmarkLocalSearch(pool);
+		benchmarkStrategies(pool);
+	}
+
+	/**
+	 * Compare sequential and parallel population evaluation across population sizes. Evaluation
+	 * skips clean individuals, so the whole population is marked dirty (untimed) before each
+	 * repetition.
+	 */
+	private static void benchmarkEvaluation(QuestionPool pool) {
+		GAUtils gaUtils = GAUtils.getInstance();
+		int numGenes = gaUtils.calculateChromosomeLength(pool, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+
+		System.out.println("Evaluation (" + Runtime.getRuntime().availableProcessors() + " cores)");
+		System.out.println("Pop size,Sequential (us),Parallel (us),Speed-up");
+
+		for (int popSize : POP_SIZES) {
+			Individual[] population = makePopulation(pool, popSize, numGenes);
+
+			Runnable markDirty = () -> markDirty(population);
+			long sequential = medianNanos(markDirty, () -> gaUtils.evaluateSequentially(population));
+			long parallel = medianNanos(markDirty, () -> gaUtils.evaluateInParallel(population));
+
+			System.out.println(popSize + "," + sequential / 1000 + "," + parallel / 1000 + ","
+				+ String.format("%.2f", (double) sequential / parallel));
+		}
+	}
+
+	/**
+	 * Compare the replacement strategies: the time of one generation, then the best fitness and
+	 * time taken after breeding the same number of offspring (as a steady-state generation breeds
+	 * only a few offspring rather than a whole population).
+	 */
+	private static void benchmarkReplacement(QuestionPool pool) {
+		int numGenes = GAUtils.getInstance().calculateChromosomeLength(pool, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+
+		System.out.println("Replacement (pop size " + REPLACEMENT_POP_SIZE + ", " + OFFSPRING_BUDGET + " offspring)");
+		System.out.println("Strategy,Generation (us),Generations,Total (ms),Best fitness");
+
+		for (ReplacementStrategy strategy : ReplacementStrategy.values()) {
+			GenerationParameters parameters = new GenerationParametersBuilder()
+				.withReplacementStrategy(strategy)
+				.build();
+
+			Island warmUpIsland = makeIsland(pool, numGenes, parameters);
+			long generation = medianNanos(() -> warmUpIsland.evolve(1));
+
+			int offspringPerGeneration = strategy == ReplacementStrategy.STEADY_STATE
+				? parameters.getSteadyStateReplacements()
+				: REPLACEMENT_POP_SIZE;
+			int numGenerations = OFFSPRING_BUDGET / offspringPerGeneration;
+
+			Island island = makeIsland(pool, numGenes, parameters);
+			long start = System.nanoTime();
+			island.evolve(numGenerations);
+			long total = System.nanoTime() - start;
+
+			double bestFitness = GAUtils.getInstance().findFittest(island.getPopulation()).getFitness();
+
+			System.out.println(strategy + "," + generation / 1000 + "," + numGenerations + "," + total / 1000000
+				+ "," + String.format("%.3f", bestFitness));
+		}
+	}
+
+	/**
+	 * Compare the paper quality and run time of a large GA without local search against a much
+	 * smaller GA with each local search mode, as the mean over several seeds. Early stopping is
+	 * disabled, so that every run does the same number of generations.
+	 */
+	private static void benchmarkLocalSearch(QuestionPool pool) throws IOException {
+		int numGenes = GAUtils.getInstance().calculateChromosomeLength(pool, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+
+		System.out.println("Local search (mean of " + LOCAL_SEARCH_SEEDS + " seeds)");
+		System.out.println("Configuration,Time (ms),Final fitness");
+
+		benchmarkLocalSearch(pool, numGenes, "Pop 2000 x 25 gens", 2000, 25, LocalSearchMode.NONE);
+		benchmarkLocalSearch(pool, numGenes, "Pop 2000 x 25 gens + final", 2000, 25, LocalSearchMode.FINAL);
+		benchmarkLocalSearch(pool, numGenes, "Pop 500 x 10 gens", 500, 10, LocalSearchMode.NONE);
+		benchmarkLocalSearch(pool, numGenes, "Pop 500 x 10 gens + final", 500, 10, LocalSearchMode.FINAL);
+		benchmarkLocalSearch(pool, numGenes, "Pop 500 x 10 gens + periodic", 500, 10, LocalSearchMode.PERIODIC);
+	}
+
+	private static void benchmarkLocalSearch(QuestionPool pool, int numGenes, String name, int popSize,
+		int numGenerations, LocalSearchMode localSearchMode) throws IOException {
+
+		long totalNanos = 0;
+		double totalFitness = 0;
+
+		// seed 0 is a warm-up
+		for (int seed = 0; seed <= LOCAL_SEARCH_SEEDS; seed++) {
+			GenerationParameters parameters = new GenerationParametersBuilder()
+				.withSeed(seed)
+				.withPopSize(popSize)
+				.withMaxGenerations(numGenerations)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.withLocalSearchMode(localSearchMode)
+				.build();
+
+			long start = System.nanoTime();
+			GenerationResult result = new GeneticAlgorithm(pool, numGenes, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED,
+				parameters).run();
+			if (seed > 0) {
+				totalNanos += System.nanoTime() - start;
+				totalFitness += result.getFinalFitness();
+			}
+		}
+
+		System.out.println(name + "," + totalNanos / LOCAL_SEARCH_SEEDS / 1000000 + ","
+			+ String.format("%.3f", totalFitness / LOCAL_SEARCH_SEEDS));
+	}
+
+	/**
+	 * Compare the GA with simulated annealing and the exact solver: time, memory allocated, and
+	 * final fitness, as the mean over several seeds. Early stopping is disabled, and every strategy
+	 * runs on the calling thread (1 island, sequential evaluation), so its allocation counter covers
+	 * the whole run.
+	 */
+	private static void benchmarkStrategies(QuestionPool pool) throws IOException {
+		int numGenes = GAUtils.getInstance().calculateChromosomeLength(pool, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+
+		System.out.println("Strategies (mean of " + LOCAL_SEARCH_SEEDS + " seeds)");
+		System.out.println("Strategy,Time (ms),Allocated (KB),Final fitness");
+
+		benchmarkStrategy(pool, numGenes, "GA (derived size)", new GeneticAlgorithmStrategy(),
+			new GenerationParametersBuilder());
+		benchmarkStrategy(pool, numGenes, "GA (derived size, no warm start)", new GeneticAlgorithmStrategy(),
+			new GenerationParametersBuilder().withWarmStartFraction(0));
+		benchmarkStrategy(pool, numGenes, "GA (pop 2000 x 25 gens)", new GeneticAlgorithmStrategy(),
+			new GenerationParametersBuilder().withPopSize(2000).withMaxGenerations(25));
+		for (int numIterations : new int[] { 10000, 50000, 200000 }) {
+			benchmarkStrategy(pool, numGenes, "SA (" + numIterations + " iterations)", new SimulatedAnnealing(),
+				new GenerationParametersBuilder().withAnnealingIterations(numIterations));
+		}
+		benchmarkStrategy(pool, numGenes, "Exact (estimated work " + ExactSolver.estimateWork(pool, numGenes) + ")",
+			new ExactSolver(), new GenerationParametersBuilder());
+	}
+
+	private static void benchmarkStrategy(QuestionPool pool, int numGenes, String name,
+		PaperGenerationStrategy strategy, GenerationParametersBuilder parametersBuilder) throws IOException {
+
+		ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long totalNanos = 0;
+		long totalBytes = 0;
+		double totalFitness = 0;
+
+		// seed 0 is a warm-up
+		for (int seed = 0; seed <= LOCAL_SEARCH_SEEDS; seed++) {
+			GenerationParameters parameters = parametersBuilder
+				.withSeed(seed)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.build();
+
+			long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+			long start = System.nanoTime();
+			GenerationResult result = strategy.generate(pool, numGenes, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED,
+				parameters, start);
+			if (seed > 0) {
+				totalNanos += System.nanoTime() - start;
+				totalBytes += threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+				totalFitness += result.getFinalFitness();
+			}
+		}
+
+		System.out.println(name + "," + totalNanos / LOCAL_SEARCH_SEEDS / 1000000 + ","
+			+ totalBytes / LOCAL_SEARCH_SEEDS / 1024 + "," + String.format("%.3f", totalFitness / LOCAL_SEARCH_SEEDS));
+	}
+
+	private static Island makeIsland(QuestionPool pool, int numGenes, GenerationParameters parameters) {
+		return new Island(REPLACEMENT_POP_SIZE, pool, numGenes, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED, parameters,
+			null, new SplittableRandom(1));
+	}
+
+	private static long medianNanos(Runnable task) {
+		return medianNanos(() -> {
+		}, task);
+	}
+
+	/**
+	 * Time a task, running an untimed setup before every run of it (including the warm-up runs).
+	 */
+	private static long medianNanos(Runnable setup, Runnable task) {
+		for (int i = 0; i < REPETITIONS; i++) {
+			setup.run();
+			task.run(); // warm-up
+		}
+
+		long[] times = new long[REPETITIONS];
+		for (int i = 0; i < REPETITIONS; i++) {
+			setup.run();
+			long start = System.nanoTime();
+			task.run();
+			times[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(times);
+		return times[REPETITIONS / 2];
+	}
+
+	private static void markDirty(Individual[] population) {
+		for (Individual individual : population) {
+			// re-setting the genes marks the individual dirty without changing its chromosome
+			individual.setGenes(individual.getGenes());
+		}
+	}
+
+	private static Individual[] makePopulation(QuestionPool pool, int popSize, int numGenes) {
+		Individual[] population = GAUtils.getInstance().initialiseIndividualArray(popSize, pool, numGenes,
+			PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		GAUtils.getInstance().randomisePopulationGenes(population, new IndexSampler(pool.size()),
+			new SplittableRandom(1));
+		return population;
+	}
+
+	private static QuestionPool makePool(int size) {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			int minsRequired = RAND.nextInt(15) + 1;
+			questions.add(new QuestionBuilder()
+				.withId(i + 1)
+				.withSubjectId(1)
+				.withStatement("statement" + i)
+				.withSkillLevel(BloomSkillLevel.getFromInt(RAND.nextInt(6) + 1))
+				.withMarks(minsRequired)
+				.withMinutesRequired(minsRequired)
+				.build());
+		}
+		return new QuestionPool(questions);
+	}
+}
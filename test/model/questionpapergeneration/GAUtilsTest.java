@@ -0,0 +1,245 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.utils.Constants;
+
+public class GAUtilsTest {
+
+	private static final int POOL_SIZE = 40;
+
+	private static final int NUM_GENES = 12;
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final int PAPER_MINS_REQUIRED = 60;
+
+	private static final long SEED = 1;
+
+	private static final int POP_SIZE = 100;
+
+	private GAUtils gaUtils = GAUtils.getInstance();
+
+	private QuestionPool pool;
+
+	private Individual[] population;
+
+	@Before
+	public void makePopulation() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < POOL_SIZE; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+		pool = new QuestionPool(questions);
+
+		population = gaUtils.initialiseIndividualArray(POP_SIZE, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+	}
+
+	@Test
+	public void testRandomisePopulationGenes_no_repeated_genes() {
+		gaUtils.randomisePopulationGenes(population, new IndexSampler(POOL_SIZE), new SplittableRandom(SEED));
+
+		for (Individual individual : population) {
+			assertNoRepeatedGenes(individual);
+		}
+	}
+
+	@Test
+	public void testMutation_no_repeated_genes() {
+		IndexSampler sampler = new IndexSampler(POOL_SIZE);
+		SplittableRandom rand = new SplittableRandom(SEED);
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+
+		for (int i = 0; i < 50; i++) {
+			gaUtils.mutation(population, sampler, rand);
+		}
+
+		for (Individual individual : population) {
+			assertNoRepeatedGenes(individual);
+		}
+	}
+
+	@Test
+	public void testRunGeneration_allocates_nothing_once_warmed_up() {
+		ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		Individual[] offspring = gaUtils.initialiseIndividualArray(POP_SIZE, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		Individual[] children = gaUtils.initialiseIndividualArray(2, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		IndexSampler sampler = new IndexSampler(POOL_SIZE);
+		SplittableRandom rand = new SplittableRandom(SEED);
+
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+		gaUtils.evaluate(population);
+		for (int g = 0; g < 100; g++) {
+			gaUtils.runGeneration(population, offspring, children, sampler, rand);
+		}
+
+		long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		for (int g = 0; g < 100; g++) {
+			gaUtils.runGeneration(population, offspring, children, sampler, rand);
+		}
+		long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+		assertEquals(0, allocatedAfter - allocatedBefore);
+	}
+
+	@Test
+	public void testRunElitistGeneration_best_fitness_never_decreases() {
+		Individual[] offspring = gaUtils.initialiseIndividualArray(POP_SIZE, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		Individual[] children = gaUtils.initialiseIndividualArray(2, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		Individual[] elites = gaUtils.initialiseIndividualArray(2, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		IndexSampler sampler = new IndexSampler(POOL_SIZE);
+		SplittableRandom rand = new SplittableRandom(SEED);
+
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+		gaUtils.evaluate(population);
+		double bestFitness = gaUtils.findFittest(population).getFitness();
+
+		for (int g = 0; g < 50; g++) {
+			gaUtils.runElitistGeneration(population, offspring, children, elites, sampler, rand);
+
+			double newBestFitness = gaUtils.findFittest(population).getFitness();
+			assertTrue(newBestFitness >= bestFitness);
+			bestFitness = newBestFitness;
+		}
+	}
+
+	@Test
+	public void testRunSteadyStateGeneration_best_fitness_never_decreases_no_repeated_genes() {
+		Individual[] children = gaUtils.initialiseIndividualArray(2, pool, NUM_GENES, PAPER_SKILL_LVL,
+			PAPER_MINS_REQUIRED);
+		IndexSampler sampler = new IndexSampler(POOL_SIZE);
+		SplittableRandom rand = new SplittableRandom(SEED);
+
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+		gaUtils.evaluate(population);
+		LeastFitHeap leastFitHeap = new LeastFitHeap(population);
+		double bestFitness = gaUtils.findFittest(population).getFitness();
+
+		for (int g = 0; g < 500; g++) {
+			gaUtils.runSteadyStateGeneration(population, leastFitHeap, children, sampler, rand);
+
+			// the heap must always yield the least fit individual
+			assertEquals(gaUtils.findLeastFit(population).getFitness(), leastFitHeap.peekLeastFit().getFitness(), 0);
+
+			double newBestFitness = gaUtils.findFittest(population).getFitness();
+			assertTrue(newBestFitness >= bestFitness);
+			bestFitness = newBestFitness;
+		}
+
+		for (Individual individual : population) {
+			assertNoRepeatedGenes(individual);
+			assertFalse(individual.isDirty());
+		}
+	}
+
+	@Test
+	public void testLocalSearch_reaches_swap_local_optimum() {
+		SplittableRandom rand = new SplittableRandom(SEED);
+		gaUtils.randomisePopulationGenes(population, new IndexSampler(POOL_SIZE), rand);
+		Individual individual = population[0];
+		individual.calculateFitness();
+		double originalFitness = individual.getFitness();
+
+		// a pool this small is searched to a local optimum well within the maximum passes
+		gaUtils.localSearch(individual, rand);
+
+		assertTrue(individual.getFitness() >= originalFitness);
+		assertNoRepeatedGenes(individual);
+		for (int i = 0; i < NUM_GENES; i++) {
+			for (int candidate = 0; candidate < POOL_SIZE; candidate++) {
+				if (!individual.containsGene(candidate)) {
+					assertTrue(individual.fitnessWithGene(i, candidate) <= individual.getFitness());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWarmStartPopulation_seeds_then_greedy_no_repeated_genes() {
+		IndexSampler sampler = new IndexSampler(POOL_SIZE);
+		SplittableRandom rand = new SplittableRandom(SEED);
+		gaUtils.randomisePopulationGenes(population, sampler, rand);
+		gaUtils.evaluate(population);
+		double meanRandomFitness = gaUtils.calculateStatistics(population).getMean();
+
+		// a seed shorter than the chromosome, and one longer
+		int[] shortSeed = { 0, 5, 10 };
+		int[] longSeed = new int[NUM_GENES + 5];
+		for (int i = 0; i < longSeed.length; i++) {
+			longSeed[i] = POOL_SIZE - 1 - i;
+		}
+		int numSeeded = 10;
+		gaUtils.warmStartPopulation(population, numSeeded, Arrays.asList(shortSeed, longSeed), sampler, rand);
+		gaUtils.evaluate(population);
+
+		for (int gene : shortSeed) {
+			assertTrue(population[0].containsGene(gene));
+		}
+		for (int gene : population[1].getGenes()) {
+			assertTrue(gene >= POOL_SIZE - longSeed.length);
+		}
+		double meanGreedyFitness = 0;
+		for (int i = 0; i < population.length; i++) {
+			assertNoRepeatedGenes(population[i]);
+			if (i >= 2 && i < numSeeded) {
+				meanGreedyFitness += population[i].getFitness() / (numSeeded - 2);
+			}
+		}
+		assertTrue(meanGreedyFitness > meanRandomFitness);
+	}
+
+	@Test
+	public void testCalculatePopulationSize_grows_with_pool_within_bounds() {
+		int smallPoolPopSize = gaUtils.calculatePopulationSize(200, 8);
+		int largePoolPopSize = gaUtils.calculatePopulationSize(100000, 8);
+
+		assertEquals(913, smallPoolPopSize);
+		assertEquals(2352, largePoolPopSize);
+		assertEquals(Constants.MAX_POP_SIZE, gaUtils.calculatePopulationSize(100000, 500));
+		// 5 from 10 has only 252 possible papers; 3 from 3 only 1 (but a population needs 2)
+		assertEquals(160, gaUtils.calculatePopulationSize(10, 5));
+		assertEquals(2, gaUtils.calculatePopulationSize(3, 3));
+	}
+
+	@Test
+	public void testCalculateMaxGenerations_grows_with_pool_within_bounds() {
+		assertEquals(23, gaUtils.calculateMaxGenerations(200, 8));
+		assertEquals(59, gaUtils.calculateMaxGenerations(100000, 8));
+		assertEquals(Constants.MIN_GENERATIONS, gaUtils.calculateMaxGenerations(10, 5));
+		assertEquals(Constants.MAX_GENERATIONS, gaUtils.calculateMaxGenerations(100000, 500));
+	}
+
+	private void assertNoRepeatedGenes(Individual individual) {
+		BitSet seen = new BitSet(POOL_SIZE);
+		for (int gene : individual.getGenes()) {
+			assertTrue(individual.containsGene(gene));
+			seen.set(gene);
+		}
+		assertEquals(NUM_GENES, seen.cardinality());
+	}
+}
@@ -0,0 +1,123 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.builders.GenerationParametersBuilder;
+import model.builders.QuestionBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.enums.TerminationReason;
+import view.utils.Constants;
+
+public class GenerationResultCacheTest {
+
+	private static final int SUBJECT_ID = 1000;
+
+	private static final int OTHER_SUBJECT_ID = 1001;
+
+	private GenerationResultCache resultCache = GenerationResultCache.getInstance();
+
+	private List<Question> questions;
+
+	@Before
+	public void makeQuestions() {
+		questions = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			questions.add(new QuestionBuilder()
+				.withId(i + 1)
+				.withSubjectId(SUBJECT_ID)
+				.withStatement("statement" + i)
+				.withSkillLevel(BloomSkillLevel.getFromInt(i + 1))
+				.withMarks(i + 1)
+				.withMinutesRequired(i + 1)
+				.build());
+		}
+	}
+
+	@Test
+	public void testPut_evicts_least_recently_used() {
+		for (int seed = 0; seed <= Constants.RESULT_CACHE_SIZE; seed++) {
+			resultCache.put(makeKey(SUBJECT_ID, seed), makeResult());
+			if (seed == 1) {
+				// seed 0 is now more recently used than seed 1
+				assertTrue(resultCache.get(makeKey(SUBJECT_ID, 0)).isPresent());
+			}
+		}
+
+		assertEquals(Constants.RESULT_CACHE_SIZE, resultCache.size());
+		assertTrue(resultCache.get(makeKey(SUBJECT_ID, 0)).isPresent());
+		assertFalse(resultCache.get(makeKey(SUBJECT_ID, 1)).isPresent());
+		resultCache.invalidateSubject(SUBJECT_ID);
+	}
+
+	@Test
+	public void testInvalidateSubject_drops_only_that_subject() {
+		GenerationResultCache.Key staleKey = makeKey(SUBJECT_ID, 0);
+		resultCache.put(staleKey, makeResult());
+		resultCache.put(makeKey(OTHER_SUBJECT_ID, 0), makeResult());
+
+		resultCache.invalidateSubject(SUBJECT_ID);
+		// a run which started before the questions changed can't be cached afterwards
+		resultCache.put(staleKey, makeResult());
+
+		assertFalse(resultCache.get(makeKey(SUBJECT_ID, 0)).isPresent());
+		assertTrue(resultCache.get(makeKey(OTHER_SUBJECT_ID, 0)).isPresent());
+		resultCache.invalidateSubject(OTHER_SUBJECT_ID);
+	}
+
+	@Test
+	public void testMakeKey_differs_for_any_settings_questions_or_seed_papers() {
+		GenerationParameters parameters = new GenerationParametersBuilder().withSeed(0).build();
+		List<List<Integer>> seedPapers = Collections.singletonList(Arrays.asList(1, 2));
+		GenerationResultCache.Key key = resultCache.makeKey(SUBJECT_ID, BloomSkillLevel.APPLICATION, 60, parameters,
+			questions, seedPapers);
+
+		// only the thread count, cache use and progress listener don't affect a result
+		assertEquals(key, resultCache.makeKey(SUBJECT_ID, BloomSkillLevel.APPLICATION, 60,
+			new GenerationParametersBuilder().withSeed(0).withNumThreads(8).build(), questions,
+			Collections.singletonList(Arrays.asList(1, 2))));
+
+		assertNotEquals(key, resultCache.makeKey(SUBJECT_ID, BloomSkillLevel.APPLICATION, 60,
+			new GenerationParametersBuilder().withSeed(0).withMaxGenerations(7).build(), questions, seedPapers));
+		assertNotEquals(key, resultCache.makeKey(SUBJECT_ID, BloomSkillLevel.APPLICATION, 60, parameters,
+			questions.subList(0, 4), seedPapers));
+		assertNotEquals(key, resultCache.makeKey(SUBJECT_ID, BloomSkillLevel.APPLICATION, 60, parameters,
+			questions, Arrays.asList(Arrays.asList(1), Arrays.asList(2))));
+	}
+
+	@Test
+	public void testGet_returns_chosen_question_ids() {
+		GenerationResultCache.Key key = makeKey(SUBJECT_ID, 0);
+		resultCache.put(key, makeResult());
+
+		GenerationResultCache.CachedResult cachedResult = resultCache.get(key).get();
+
+		assertArrayEquals(new int[] { 1, 2, 3 }, cachedResult.getQuestionIds());
+		assertEquals(TerminationReason.MAX_GENERATIONS, cachedResult.getTerminationReason());
+		resultCache.invalidateSubject(SUBJECT_ID);
+	}
+
+	private GenerationResultCache.Key makeKey(int subjectId, long seed) {
+		return resultCache.makeKey(subjectId, BloomSkillLevel.APPLICATION, 60,
+			new GenerationParametersBuilder().withSeed(seed).build(), questions, Collections.emptyList());
+	}
+
+	private GenerationResult makeResult() {
+		// the individual's initial chromosome is the first 3 questions of the pool
+		Individual individual = new Individual(new QuestionPool(questions), 3, 3, 60);
+		return new GenerationResult(individual, 1, TerminationReason.MAX_GENERATIONS, null);
+	}
+}
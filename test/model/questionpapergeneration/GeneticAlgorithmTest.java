@@ -0,0 +1,70 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.builders.GenerationParametersBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+import view.enums.ReplacementStrategy;
+
+public class GeneticAlgorithmTest {
+
+	private static final int POOL_SIZE = 200;
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final int PAPER_MINS_REQUIRED = 60;
+
+	private static final int NUM_SEEDS = 30;
+
+	private QuestionPool pool;
+
+	private int numGenes;
+
+	@Before
+	public void makePool() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < POOL_SIZE; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+		pool = new QuestionPool(questions);
+		numGenes = GAUtils.getInstance().calculateChromosomeLength(pool, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+	}
+
+	@Test
+	public void testRun_returns_best_fitness_reported_despite_stagnation() throws IOException {
+		for (int seed = 0; seed < NUM_SEEDS; seed++) {
+			List<Double> reported = new ArrayList<>();
+			// generational replacement (with a small population) can lose its fittest individual
+			GenerationParameters parameters = new GenerationParametersBuilder()
+				.withSeed(seed)
+				.withPopSize(20)
+				.withMaxGenerations(50)
+				.withReplacementStrategy(ReplacementStrategy.GENERATIONAL)
+				.withStagnationWindow(5)
+				.withStopOnExactMatch(false)
+				.withWarmStartFraction(0)
+				.withProgressListener((generationsCompleted, maxGenerations, bestFitness) -> reported.add(bestFitness))
+				.build();
+
+			GenerationResult result = new GeneticAlgorithm(pool, numGenes, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED,
+				parameters).run();
+
+			double highestReported = -Double.MAX_VALUE;
+			for (double fitness : reported) {
+				// the best fitness found so far never decreases
+				assertTrue(fitness >= highestReported);
+				highestReported = fitness;
+			}
+			assertTrue(result.getFinalFitness() >= highestReported);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+
+public class IndividualTest {
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final int PAPER_MINS_REQUIRED = 60;
+
+	private static final double DELTA = 1e-9;
+
+	private QuestionPool pool;
+
+	@Before
+	public void makePool() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+		pool = new QuestionPool(questions);
+	}
+
+	@Test
+	public void testCalculateFitness_matches_two_pass_calculation() {
+		Individual individual = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual.setGenes(new int[] { 0, 7, 13, 22, 29 });
+		individual.calculateFitness();
+
+		assertEquals(twoPassFitness(individual.getGenes()), individual.getFitness(), DELTA);
+	}
+
+	@Test
+	public void testSetGene_updates_fitness_incrementally() {
+		Individual individual = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual.setGenes(new int[] { 0, 1, 2, 3, 4 });
+		individual.setGene(1, 17);
+		individual.setGene(4, 25);
+		individual.calculateFitness();
+
+		assertEquals(twoPassFitness(new int[] { 0, 17, 2, 3, 25 }), individual.getFitness(), DELTA);
+	}
+
+	@Test
+	public void testCopyFrom_copies_genes_and_fitness() {
+		Individual original = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		original.setGenes(new int[] { 5, 6, 7, 8, 9 });
+		original.calculateFitness();
+
+		Individual copy = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		copy.copyFrom(original);
+		double copiedFitness = copy.getFitness();
+		copy.calculateFitness();
+
+		assertEquals(original.getFitness(), copiedFitness, DELTA);
+		assertEquals(original.getFitness(), copy.getFitness(), DELTA);
+	}
+
+	@Test
+	public void testFitnessWithGene_matches_fitness_after_setGene() {
+		Individual individual = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual.setGenes(new int[] { 0, 7, 13, 22, 29 });
+		individual.calculateFitness();
+		double originalFitness = individual.getFitness();
+
+		double swappedFitness = individual.fitnessWithGene(2, 18);
+		assertEquals(originalFitness, individual.getFitness(), 0);
+
+		individual.setGene(2, 18);
+		individual.calculateFitness();
+		assertEquals(individual.getFitness(), swappedFitness, 0);
+	}
+
+	@Test
+	public void testChromosomeHash_independent_of_gene_order() {
+		Individual individual1 = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual1.setGenes(new int[] { 3, 9, 14, 21, 28 });
+
+		Individual individual2 = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual2.setGenes(new int[] { 0, 28, 14, 3, 21 });
+		individual2.setGene(0, 9);
+
+		assertEquals(individual1.getChromosomeHash(), individual2.getChromosomeHash());
+
+		individual2.setGene(0, 10);
+		assertNotEquals(individual1.getChromosomeHash(), individual2.getChromosomeHash());
+	}
+
+	@Test
+	public void testCalculateFitness_cached_fitness_matches_calculated() {
+		FitnessCache fitnessCache = new FitnessCache(64);
+		Individual cached = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		cached.setFitnessCache(fitnessCache);
+
+		cached.setGenes(new int[] { 0, 7, 13, 22, 29 });
+		cached.calculateFitness();
+		cached.setGenes(new int[] { 29, 22, 13, 7, 0 });
+		cached.calculateFitness();
+
+		assertEquals(1, fitnessCache.getMisses());
+		assertEquals(1, fitnessCache.getHits());
+		assertEquals(twoPassFitness(cached.getGenes()), cached.getFitness(), DELTA);
+	}
+
+	@Test
+	public void testContainsGene_after_setGene() {
+		Individual individual = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		individual.setGenes(new int[] { 0, 1, 2, 3, 4 });
+		individual.setGene(2, 20);
+
+		assertTrue(individual.containsGene(20));
+		assertFalse(individual.containsGene(2));
+		assertFalse(individual.containsAllPossibleGenes());
+	}
+
+	@Test
+	public void testRecombine_no_repeated_genes() {
+		Individual p1 = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		Individual p2 = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		p1.setGenes(new int[] { 0, 1, 2, 3, 4 });
+		p2.setGenes(new int[] { 1, 4, 10, 0, 11 });
+
+		Individual offspring = new Individual(pool, 5, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		offspring.recombine(p1, p2, 2);
+		offspring.calculateFitness();
+
+		assertArrayEquals(new int[] { 0, 1, 4, 10, 11 }, offspring.getGenes());
+		assertTrue(offspring.containsGene(4));
+		assertFalse(offspring.containsGene(2));
+		assertEquals(twoPassFitness(offspring.getGenes()), offspring.getFitness(), DELTA);
+	}
+
+	@Test
+	public void testCalculateFitness_forms_rewards_form_quality_and_similarity() {
+		int[] form1 = { 0, 7, 13 };
+		int[] form2 = { 22, 29, 4 };
+		Individual forms = new Individual(pool, 2, 3, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		forms.setGenes(new int[] { 0, 7, 13, 22, 29, 4 });
+		forms.calculateFitness();
+
+		// minutes: 1 + 8 + 14 = 23 vs 8 + 15 + 5 = 28; skill levels: 1 + 2 + 2 = 5 vs 5 + 6 + 5 = 16
+		double expected = (twoPassFitness(form1) + twoPassFitness(form2)) / 2 - (28 - 23) - (16 - 5) / 3.0;
+		assertEquals(expected, forms.getFitness(), DELTA);
+
+		// moving a question to the other form changes the forms, so their fitness and hash
+		Individual swapped = new Individual(pool, 2, 3, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		swapped.setGenes(new int[] { 4, 7, 13, 22, 29, 0 });
+		assertNotEquals(forms.getChromosomeHash(), swapped.getChromosomeHash());
+	}
+
+	@Test
+	public void testFitnessWithGene_forms_matches_fitness_after_setGene() {
+		Individual forms = new Individual(pool, 3, 4, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED);
+		forms.setGenes(new int[] { 0, 1, 2, 3, 10, 11, 12, 13, 20, 21, 22, 23 });
+		forms.calculateFitness();
+
+		double predictedFitness = forms.fitnessWithGene(5, 17);
+		forms.setGene(5, 17);
+		forms.calculateFitness();
+
+		assertEquals(forms.getFitness(), predictedFitness, DELTA);
+	}
+
+	/*
+	 * The original (mean, then squared differences) fitness calculation, to check the running sums
+	 * against.
+	 */
+	private double twoPassFitness(int[] genes) {
+		double meanSkillLvl = 0;
+		double meanMinsRequired = 0;
+		for (int gene : genes) {
+			meanSkillLvl += pool.getSkillLvl(gene);
+			meanMinsRequired += pool.getMinsRequired(gene);
+		}
+		double totalMinsRequired = meanMinsRequired;
+		meanSkillLvl /= genes.length;
+		meanMinsRequired /= genes.length;
+
+		double varianceSkillLvls = 0;
+		double varianceMinsRequired = 0;
+		for (int gene : genes) {
+			varianceSkillLvls += Math.pow(pool.getSkillLvl(gene) - meanSkillLvl, 2);
+			varianceMinsRequired += Math.pow(pool.getMinsRequired(gene) - meanMinsRequired, 2);
+		}
+
+		return Math.sqrt(varianceSkillLvls / genes.length) + Math.sqrt(varianceMinsRequired / genes.length)
+			- Math.abs(PAPER_SKILL_LVL - meanSkillLvl) - Math.abs(PAPER_MINS_REQUIRED - totalMinsRequired);
+	}
+}
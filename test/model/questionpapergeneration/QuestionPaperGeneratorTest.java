@@ -0,0 +1,413 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.builders.AnswerBuilder;
+import model.builders.GenerationParametersBuilder;
+import model.builders.PaperRequestBuilder;
+import model.builders.QuestionBuilder;
+import model.persisted.Answer;
+import model.persisted.Question;
+import model.persisted.QuestionPaper;
+import model.service.QuestionPaperService;
+import model.service.QuestionService;
+
+import view.enums.BloomSkillLevel;
+import view.enums.GenerationStrategyType;
+import view.enums.TerminationReason;
+
+public class QuestionPaperGeneratorTest {
+
+	private static final int POOL_SIZE = 200;
+
+	private static final int SUBJECT_ID = 1;
+
+	private static final int OTHER_SUBJECT_ID = 2;
+
+	private static final int MINS_REQUIRED = 60;
+
+	private static final long SEED = 42;
+
+	private QuestionPaperGenerator generator = QuestionPaperGenerator.getInstance();
+
+	private List<Question> questions;
+
+	@Before
+	public void makeQuestions() {
+		questions = new ArrayList<>();
+		for (int i = 0; i < POOL_SIZE; i++) {
+			questions.add(makeNewQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+	}
+
+	@Test
+	public void testGeneratePaper_same_seed_same_paper() throws IOException {
+		QuestionPaper paper1 = generate(SEED);
+		QuestionPaper paper2 = generate(SEED);
+
+		assertEquals(paper1.getQuestionIds(), paper2.getQuestionIds());
+	}
+
+	@Test
+	public void testGeneratePaper_valid_paper() throws IOException {
+		QuestionPaper paper = generate(SEED);
+
+		boolean noRepeatedQuestions = paper.getQuestionIds().stream().distinct().count() == paper.getQuestionIds()
+			.size();
+
+		assertTrue(noRepeatedQuestions);
+		assertTrue(paper.getQuestionIds().size() >= 2);
+	}
+
+	@Test
+	public void testGeneratePaper_islands_same_paper_regardless_of_threads() throws IOException {
+		QuestionPaper paper1 = generate(gaParameters()
+			.withSeed(SEED)
+			.withNumIslands(4)
+			.withNumThreads(1)
+			.build());
+		QuestionPaper paper2 = generate(gaParameters()
+			.withSeed(SEED)
+			.withNumIslands(4)
+			.withNumThreads(4)
+			.build());
+
+		assertEquals(paper1.getQuestionIds(), paper2.getQuestionIds());
+	}
+
+	@Test
+	public void testGenerate_stops_early_on_stagnation() throws IOException {
+		List<Integer> reportedGenerations = new ArrayList<>();
+		List<Double> reportedFitnesses = new ArrayList<>();
+		GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED)
+				.withMaxGenerations(1000)
+				.withStagnationWindow(3)
+				.withStopOnExactMatch(false)
+				.withProgressListener((generationsCompleted, maxGenerations, bestFitness) -> {
+					reportedGenerations.add(generationsCompleted);
+					reportedFitnesses.add(bestFitness);
+				})
+				.build());
+
+		assertEquals(TerminationReason.STAGNATION, result.getTerminationReason());
+		assertTrue(result.getGenerationsCompleted() < 1000);
+
+		int lastReport = reportedFitnesses.size() - 1;
+		assertTrue(result.getFinalFitness() >= reportedFitnesses.get(lastReport));
+		for (int i = 1; i <= lastReport; i++) {
+			// the best fitness never decreases, and no improvement was reported in the last 3 generations
+			assertTrue(reportedFitnesses.get(i) >= reportedFitnesses.get(i - 1));
+			if (reportedGenerations.get(i) > result.getGenerationsCompleted() - 3) {
+				assertEquals(reportedFitnesses.get(i - 1), reportedFitnesses.get(i), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testGenerate_runs_to_max_generations_without_stopping_criteria() throws IOException {
+		GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED)
+				.withMaxGenerations(7)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.build());
+
+		assertEquals(TerminationReason.MAX_GENERATIONS, result.getTerminationReason());
+		assertEquals(7, result.getGenerationsCompleted());
+	}
+
+	@Test
+	public void testGenerate_returns_best_so_far_when_time_budget_expires() throws IOException {
+		GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED)
+				.withMaxGenerations(Integer.MAX_VALUE)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.withTimeBudgetMillis(50)
+				.build());
+
+		assertEquals(TerminationReason.DEADLINE, result.getTerminationReason());
+		assertTrue(result.getGenerationsCompleted() > 0);
+		assertTrue(result.getQuestionPaper().getQuestionIds().size() >= 2);
+	}
+
+	@Test
+	public void testGenerate_respects_time_budget_within_first_island_epoch() throws IOException {
+		// the budget expires long before the first migration would be reached
+		GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED)
+				.withNumIslands(4)
+				.withMigrationInterval(100000)
+				.withMaxGenerations(100000)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.withTimeBudgetMillis(20)
+				.build());
+
+		assertEquals(TerminationReason.DEADLINE, result.getTerminationReason());
+		assertTrue(result.getGenerationsCompleted() < 100000);
+	}
+
+	@Test
+	public void testGenerate_reports_progress_and_stops_when_cancelled() throws IOException {
+		List<Integer> progress = new ArrayList<>();
+		GenerationProgressListener progressListener = new GenerationProgressListener() {
+			@Override
+			public void progressed(int generationsCompleted, int maxGenerations, double bestFitness) {
+				progress.add(generationsCompleted);
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return progress.size() == 3;
+			}
+		};
+
+		GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED)
+				.withMaxGenerations(100)
+				.withStagnationWindow(0)
+				.withStopOnExactMatch(false)
+				.withProgressListener(progressListener)
+				.build());
+
+		assertEquals(Arrays.asList(1, 2, 3), progress);
+		assertEquals(TerminationReason.CANCELLED, result.getTerminationReason());
+		assertEquals(3, result.getGenerationsCompleted());
+		assertTrue(result.getQuestionPaper().getQuestionIds().size() >= 2);
+	}
+
+	@Test
+	public void testGenerate_repeat_request_served_from_result_cache_until_invalidated() throws IOException {
+		GenerationResultCache resultCache = GenerationResultCache.getInstance();
+		GenerationParameters parameters = gaParameters()
+			.withSeed(SEED + 1)
+			.withUseResultCache(true)
+			.build();
+
+		GenerationResult result1 = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters);
+		int hits = resultCache.getHits();
+		GenerationResult result2 = generator.generate(questions, SUBJECT_ID, "Other title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters);
+
+		assertEquals(hits + 1, resultCache.getHits());
+		assertEquals(result1.getQuestionPaper().getQuestionIds(), result2.getQuestionPaper().getQuestionIds());
+		assertEquals(result1.getFinalFitness(), result2.getFinalFitness(), 0);
+		assertEquals("Other title", result2.getQuestionPaper().getTitle());
+
+		// the same seed with other settings, or other questions, is searched afresh
+		GenerationResult result3 = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters()
+				.withSeed(SEED + 1)
+				.withUseResultCache(true)
+				.withMaxGenerations(1)
+				.build());
+		generator.generate(questions.subList(0, POOL_SIZE / 2), SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters);
+
+		assertEquals(hits + 1, resultCache.getHits());
+		assertEquals(1, result3.getGenerationsCompleted());
+
+		// as if a question of the subject were added or deleted
+		resultCache.invalidateSubject(SUBJECT_ID);
+		generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code", BloomSkillLevel.APPLICATION,
+			MINS_REQUIRED, parameters);
+
+		assertEquals(hits + 1, resultCache.getHits());
+	}
+
+	@Test
+	public void testGeneratePaper_fitness_cache_same_paper() throws IOException {
+		QuestionPaper paper1 = generate(SEED);
+		QuestionPaper paper2 = generate(gaParameters()
+			.withSeed(SEED)
+			.withFitnessCacheSize(1 << 12)
+			.build());
+
+		assertEquals(paper1.getQuestionIds(), paper2.getQuestionIds());
+	}
+
+	@Test
+	public void testGenerate_simulated_annealing_valid_and_reproducible() throws IOException {
+		GenerationParameters parameters = new GenerationParametersBuilder()
+			.withSeed(SEED)
+			.withStrategyType(GenerationStrategyType.SIMULATED_ANNEALING)
+			.withStopOnExactMatch(false)
+			.withAnnealingIterations(5000)
+			.withUseResultCache(false)
+			.build();
+		GenerationResult result1 = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters);
+		GenerationResult result2 = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters);
+
+		List<Integer> questionIds = result1.getQuestionPaper().getQuestionIds();
+		assertEquals(questionIds.size(), questionIds.stream().distinct().count());
+		assertEquals(TerminationReason.MAX_GENERATIONS, result1.getTerminationReason());
+		assertEquals(5000, result1.getGenerationsCompleted());
+		assertEquals(questionIds, result2.getQuestionPaper().getQuestionIds());
+	}
+
+	@Test
+	public void testGenerate_auto_solves_small_pool_exactly() throws IOException {
+		GenerationResult exactResult = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, new GenerationParametersBuilder()
+				.withSeed(SEED)
+				.withStrategyType(GenerationStrategyType.AUTO)
+				.build());
+		GenerationResult gaResult = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, gaParameters().withSeed(SEED).build());
+
+		List<Integer> questionIds = exactResult.getQuestionPaper().getQuestionIds();
+		assertEquals(questionIds.size(), questionIds.stream().distinct().count());
+		assertEquals(TerminationReason.OPTIMAL, exactResult.getTerminationReason());
+		assertTrue(exactResult.getFinalFitness() >= gaResult.getFinalFitness());
+	}
+
+	@Test
+	public void testGenerate_parallel_forms_share_no_questions() throws IOException {
+		for (GenerationStrategyType strategyType : new GenerationStrategyType[] {
+			GenerationStrategyType.GENETIC_ALGORITHM, GenerationStrategyType.SIMULATED_ANNEALING }) {
+
+			GenerationResult result = generator.generate(questions, SUBJECT_ID, "Title", "Course title", "Code",
+				BloomSkillLevel.APPLICATION, MINS_REQUIRED, new GenerationParametersBuilder()
+					.withSeed(SEED)
+					.withStrategyType(strategyType)
+					.withNumForms(3)
+					.build());
+
+			List<QuestionPaper> forms = result.getQuestionPapers();
+			assertEquals(3, forms.size());
+			assertEquals("Title Form C", forms.get(2).getTitle());
+
+			Set<Integer> questionIds = new HashSet<>();
+			for (QuestionPaper form : forms) {
+				assertEquals(forms.get(0).getQuestionIds().size(), form.getQuestionIds().size());
+				assertEquals(forms.get(0).getId() + forms.indexOf(form), form.getId());
+				questionIds.addAll(form.getQuestionIds());
+			}
+			assertEquals(3 * forms.get(0).getQuestionIds().size(), questionIds.size());
+		}
+	}
+
+	@Test
+	public void testGeneratePapers_persists_batch_in_request_order() throws IOException {
+		QuestionService questionService = QuestionService.getInstance();
+		QuestionPaperService questionPaperService = QuestionPaperService.getInstance();
+
+		// reset the question and paper files, then store questions of two subjects
+		List<Integer> allQuestionIds = questionService.getAllQuestions().stream()
+			.map(Question::getId)
+			.collect(Collectors.toList());
+		if (!allQuestionIds.isEmpty()) {
+			questionService.deleteQuestionsByIds(allQuestionIds);
+		}
+		List<Integer> allPaperIds = questionPaperService.getAllQuestionPapers().stream()
+			.map(QuestionPaper::getId)
+			.collect(Collectors.toList());
+		if (!allPaperIds.isEmpty()) {
+			questionPaperService.deleteQuestionPapersByIds(allPaperIds);
+		}
+		for (int i = 0; i < 40; i++) {
+			questionService.addQuestion(makeNewQuestion(i + 1, SUBJECT_ID, BloomSkillLevel.getFromInt(i % 6 + 1),
+				i % 15 + 1));
+			questionService.addQuestion(makeNewQuestion(i + 41, OTHER_SUBJECT_ID,
+				BloomSkillLevel.getFromInt(i % 6 + 1), i % 15 + 1));
+		}
+
+		List<PaperRequest> requests = Arrays.asList(makeRequest(SUBJECT_ID, 1), makeRequest(OTHER_SUBJECT_ID, 2),
+			makeRequest(SUBJECT_ID, 1));
+		List<GenerationResult> results = generator.generatePapers(requests);
+
+		assertEquals(3, results.size());
+		assertEquals(2, results.get(1).getQuestionPapers().size());
+		assertEquals(Arrays.asList(1, 2, 3, 4), questionPaperService.getAllQuestionPapers().stream()
+			.map(QuestionPaper::getId)
+			.sorted()
+			.collect(Collectors.toList()));
+
+		for (int i = 0; i < requests.size(); i++) {
+			for (QuestionPaper paper : results.get(i).getQuestionPapers()) {
+				int subjectId = requests.get(i).getSubjectId();
+				assertEquals(subjectId, paper.getSubjectId());
+				assertTrue(paper.getQuestionIds().stream()
+					.allMatch(id -> questionService.getQuestionById(id).get().getSubjectId() == subjectId));
+			}
+		}
+	}
+
+	private PaperRequest makeRequest(int subjectId, int numForms) {
+		return new PaperRequestBuilder()
+			.withSubjectId(subjectId)
+			.withTitle("Title")
+			.withCourseTitle("Course title")
+			.withCourseCode("Code")
+			.withSkillLevel(BloomSkillLevel.APPLICATION)
+			.withMinsRequired(MINS_REQUIRED)
+			.withParameters(new GenerationParametersBuilder()
+				.withSeed(SEED)
+				.withNumForms(numForms)
+				.build())
+			.build();
+	}
+
+	private QuestionPaper generate(long seed) throws IOException {
+		return generate(gaParameters().withSeed(seed).build());
+	}
+
+	/**
+	 * Parameters pinned to the GA, as the default (AUTO) strategy solves this pool exactly, and
+	 * searching afresh, as tests compare repeated runs (which the result cache would otherwise
+	 * answer without searching).
+	 */
+	private GenerationParametersBuilder gaParameters() {
+		return new GenerationParametersBuilder()
+			.withStrategyType(GenerationStrategyType.GENETIC_ALGORITHM)
+			.withUseResultCache(false);
+	}
+
+	private QuestionPaper generate(GenerationParameters parameters) throws IOException {
+		return generator.generatePaper(questions, SUBJECT_ID, "Title", "Course title", "Code",
+			BloomSkillLevel.APPLICATION, MINS_REQUIRED, parameters).get();
+	}
+
+	private Question makeNewQuestion(int id, BloomSkillLevel skillLevel, int minsRequired) {
+		return makeNewQuestion(id, SUBJECT_ID, skillLevel, minsRequired);
+	}
+
+	private Question makeNewQuestion(int id, int subjectId, BloomSkillLevel skillLevel, int minsRequired) {
+		Answer ansA = new AnswerBuilder().withValue("val1").withIsCorrect(true).build();
+		Answer ansB = new AnswerBuilder().withValue("val2").withIsCorrect(false).build();
+
+		return new QuestionBuilder()
+			.withId(id)
+			.withSubjectId(subjectId)
+			.withStatement("statement" + id)
+			.withAnswers(Arrays.asList(ansA, ansB))
+			.withSkillLevel(skillLevel)
+			.withMarks(minsRequired)
+			.withMinutesRequired(minsRequired)
+			.withDateCreated(LocalDateTime.now())
+			.build();
+	}
+}
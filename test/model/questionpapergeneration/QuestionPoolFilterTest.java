@@ -0,0 +1,76 @@
+package model.questionpapergeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import model.builders.GenerationParametersBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+
+public class QuestionPoolFilterTest {
+
+	private static final int PAPER_SKILL_LVL = 3;
+
+	private static final int PAPER_MINS_REQUIRED = 30;
+
+	private static final long SEED = 1;
+
+	@Test
+	public void testRemoveInfeasible_removes_questions_too_long_for_any_paper_and_keeps_optimum() {
+		List<Question> questions = new ArrayList<>();
+		int[] minsRequired = { 2, 10, 10, 29, 35 };
+		for (int i = 0; i < minsRequired.length; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 6 + 1), minsRequired[i]));
+		}
+		QuestionPool pool = new QuestionPool(questions);
+		int numGenes = 2;
+
+		QuestionPool feasiblePool = QuestionPoolFilter.removeInfeasible(pool, PAPER_MINS_REQUIRED, 1);
+
+		// only the 35-minute question is longer than the paper, and the best paper pairs 2 and 29 minutes
+		assertEquals(4, feasiblePool.size());
+		for (int i = 0; i < feasiblePool.size(); i++) {
+			assertTrue(feasiblePool.getMinsRequired(i) <= PAPER_MINS_REQUIRED);
+		}
+		assertEquals(optimalFitness(pool, numGenes), optimalFitness(feasiblePool, numGenes), 1e-9);
+
+		// 3 forms need 6 questions, so none can be removed
+		assertSame(pool, QuestionPoolFilter.removeInfeasible(pool, PAPER_MINS_REQUIRED, 3));
+	}
+
+	@Test
+	public void testRemoveDominated_caps_each_type_and_keeps_optimum() {
+		List<Question> questions = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			questions.add(TestQuestions.makeQuestion(i + 1, BloomSkillLevel.getFromInt(i % 3 + 2), i % 4 + 4));
+		}
+		QuestionPool pool = new QuestionPool(questions);
+		int numGenes = 5;
+
+		QuestionPool searchPool = QuestionPoolFilter.removeDominated(pool, numGenes, SEED);
+
+		// 12 types (3 skill levels x 4 durations) of 10 questions each, cut down to 5 each
+		Map<Long, Integer> numOfType = new HashMap<>();
+		for (int i = 0; i < searchPool.size(); i++) {
+			numOfType.merge((long) searchPool.getSkillLvl(i) << 32 | searchPool.getMinsRequired(i), 1, Integer::sum);
+		}
+		assertEquals(12, numOfType.size());
+		assertTrue(numOfType.values().stream().allMatch(n -> n == numGenes));
+
+		assertEquals(optimalFitness(pool, numGenes), optimalFitness(searchPool, numGenes), 1e-9);
+	}
+
+	private double optimalFitness(QuestionPool pool, int numGenes) {
+		return new ExactSolver().generate(pool, numGenes, PAPER_SKILL_LVL, PAPER_MINS_REQUIRED,
+			new GenerationParametersBuilder().withSeed(SEED).build(), System.nanoTime()).getFinalFitness();
+	}
+}
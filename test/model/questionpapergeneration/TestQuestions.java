@@ -0,0 +1,36 @@
+package model.questionpapergeneration;
+
+import model.builders.QuestionBuilder;
+import model.persisted.Question;
+
+import view.enums.BloomSkillLevel;
+
+/**
+ * This class makes the questions which the question paper generation tests build their pools from.
+ *
+ * @author Sam Barba
+ */
+final class TestQuestions {
+
+	private TestQuestions() {
+	}
+
+	/**
+	 * Make a question of subject 1, worth 1 mark per minute required.
+	 *
+	 * @param id           - the ID of the question
+	 * @param skillLevel   - the skill level of the question
+	 * @param minsRequired - the minutes required for the question
+	 * @return the question
+	 */
+	static Question makeQuestion(int id, BloomSkillLevel skillLevel, int minsRequired) {
+		return new QuestionBuilder()
+			.withId(id)
+			.withSubjectId(1)
+			.withStatement("statement" + id)
+			.withSkillLevel(skillLevel)
+			.withMarks(minsRequired)
+			.withMinutesRequired(minsRequired)
+			.build();
+	}
+}